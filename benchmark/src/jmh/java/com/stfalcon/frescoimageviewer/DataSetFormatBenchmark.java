@@ -0,0 +1,110 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/*
+ * Cost of BaseDataSet.format(int) with the formatters typically passed to the builder,
+ * without and with the url cache, paging back and forth over the cached pages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataSetFormatBenchmark {
+
+    private static final int ITEMS = 4096;
+    private static final int CACHED_ITEMS = 64;
+
+    @Param({"toString", "concat", "signed"})
+    public String formatter;
+
+    @Param({"0", "128"})
+    public int urlCacheSize;
+
+    private BaseDataSet<Photo> dataSet;
+    private int index;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        List<Photo> photos = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            photos.add(new Photo("photo-" + i));
+        }
+        dataSet = new BaseDataSet<>(photos);
+        switch (formatter) {
+            case "concat":
+                dataSet.formatter = new UrlFormatter<Photo>() {
+                    @Override
+                    public String format(Photo photo) {
+                        return "https://cdn.example.com/images/" + photo.id + ".jpg";
+                    }
+                };
+                break;
+            case "signed":
+                dataSet.formatter = new SignedUrlFormatter();
+                break;
+            default:
+                dataSet.formatter = null;
+        }
+        dataSet.setUrlCacheSize(urlCacheSize);
+    }
+
+    @Benchmark
+    public String format() {
+        index = (index + 1) & (CACHED_ITEMS - 1);
+        return dataSet.format(index);
+    }
+
+    static class Photo {
+
+        final String id;
+
+        Photo(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return "https://cdn.example.com/images/" + id + ".jpg";
+        }
+    }
+
+    // formats a CDN url signed with HMAC-SHA256, the expensive case
+    static class SignedUrlFormatter implements UrlFormatter<Photo> {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final Mac mac;
+
+        SignedUrlFormatter() throws GeneralSecurityException {
+            mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec("benchmark-secret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        }
+
+        @Override
+        public String format(Photo photo) {
+            String path = "/images/" + photo.id + ".jpg";
+            byte[] signature = mac.doFinal(path.getBytes(StandardCharsets.UTF_8));
+            StringBuilder url = new StringBuilder("https://cdn.example.com").append(path).append("?sig=");
+            for (byte b : signature) {
+                url.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+            return url.toString();
+        }
+    }
+}
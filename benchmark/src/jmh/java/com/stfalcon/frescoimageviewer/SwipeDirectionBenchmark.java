@@ -0,0 +1,60 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost of classifying a single swipe, as done by SwipeDirectionDetector on the first ACTION_MOVE
+ * past the touch slop: the angle based getDirection against the trig-free classify.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwipeDirectionBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final float[] dx = new float[POINTS];
+    private final float[] dy = new float[POINTS];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            dx[i] = (random.nextFloat() - 0.5f) * 200.0f;
+            dy[i] = (random.nextFloat() - 0.5f) * 200.0f;
+        }
+    }
+
+    @Benchmark
+    public double getAngle() {
+        int i = next();
+        return SwipeDirection.getAngle(0.0f, 0.0f, dx[i], dy[i]);
+    }
+
+    @Benchmark
+    public SwipeDirection getDirection() {
+        int i = next();
+        return SwipeDirection.get(0.0f, 0.0f, dx[i], dy[i]);
+    }
+
+    @Benchmark
+    public SwipeDirection classify() {
+        int i = next();
+        return SwipeDirection.classify(0.0f, 0.0f, dx[i], dy[i]);
+    }
+
+    private int next() {
+        index = (index + 1) & (POINTS - 1);
+        return index;
+    }
+}
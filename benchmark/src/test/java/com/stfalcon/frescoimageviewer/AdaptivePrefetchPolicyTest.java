@@ -0,0 +1,40 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/*
+ * A swipe is still settling when its page gets selected. The scroll events coming after the selection
+ * must keep the lookahead in the direction of the swipe.
+ */
+public class AdaptivePrefetchPolicyTest {
+
+    @Test
+    public void forwardSwipeSettlingAfterSelectionKeepsDirection() {
+        AdaptivePrefetchPolicy policy = new AdaptivePrefetchPolicy(5);
+        policy.onPageSelected(10, 0);
+        policy.onPageScrolled(10, 0.3f, 150);
+        policy.onPageSelected(11, 200);
+        policy.onPageScrolled(10, 0.9f, 210);
+        policy.onPageScrolled(10, 0.95f, 220);
+        policy.onPageScrolled(10, 0.99f, 230);
+        policy.onPageSelected(11, 300);
+
+        assertTrue(policy.getForwardWindow() > policy.getBackwardWindow());
+    }
+
+    @Test
+    public void backwardSwipeSettlingAfterSelectionKeepsDirection() {
+        AdaptivePrefetchPolicy policy = new AdaptivePrefetchPolicy(5);
+        policy.onPageSelected(10, 0);
+        policy.onPageScrolled(9, 0.7f, 150);
+        policy.onPageSelected(9, 200);
+        policy.onPageScrolled(9, 0.1f, 210);
+        policy.onPageScrolled(9, 0.05f, 220);
+        policy.onPageScrolled(9, 0.01f, 230);
+        policy.onPageSelected(9, 300);
+
+        assertTrue(policy.getBackwardWindow() > policy.getForwardWindow());
+    }
+}
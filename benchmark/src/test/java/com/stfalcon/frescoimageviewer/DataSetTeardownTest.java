@@ -0,0 +1,127 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * A paged data set may outlive the viewers showing it. Opening and closing a viewer over it many times
+ * must not keep the closed ones alive through its page listener, nor call back into them once closed.
+ * Each listener stands in for an ImageViewerView, which releases it like ImageViewerView.release() does.
+ */
+public class DataSetTeardownTest {
+
+    private static final int SESSIONS = 1000;
+    private static final int ITEMS = 1000;
+    // roughly what a viewer keeps alive: its pages and their bitmaps
+    private static final int VIEWER_BYTES = 1 << 20;
+    private static final long MAX_RETAINED_BYTES = 16L * VIEWER_BYTES;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor queue = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    };
+
+    @Test
+    public void closedViewersAreNotRetained() {
+        BaseDataSet<String> dataSet = new BaseDataSet<>(new PagedList<>(new Source(), queue, queue));
+        List<WeakReference<Viewer>> closed = new ArrayList<>();
+
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < SESSIONS; i++) {
+            Viewer viewer = new Viewer();
+            dataSet.setPageListener(viewer);
+            dataSet.loadAround((i * 97) % ITEMS);
+            // a load finishes while the viewer is open, the next one only after it's closed
+            runNextTask();
+            runNextTask();
+            dataSet.setPageListener(null);
+            runAllTasks();
+            closed.add(new WeakReference<>(viewer));
+        }
+        long after = usedHeapAfterGc();
+
+        for (WeakReference<Viewer> reference : closed) {
+            assertNull(reference.get());
+        }
+        assertTrue("Retained " + (after - before) + " bytes", after - before < MAX_RETAINED_BYTES);
+    }
+
+    @Test
+    public void closedViewerIsNotCalledBack() {
+        BaseDataSet<String> dataSet = new BaseDataSet<>(new PagedList<>(new Source(), queue, queue));
+        Viewer viewer = new Viewer();
+        dataSet.setPageListener(viewer);
+        dataSet.loadAround(0);
+        dataSet.setPageListener(null);
+        runAllTasks();
+
+        assertEquals(0, viewer.callbacks);
+    }
+
+    private void runNextTask() {
+        Runnable task = tasks.poll();
+        if (task != null) {
+            task.run();
+        }
+    }
+
+    private void runAllTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class Viewer implements PagedList.Listener {
+
+        final byte[] pages = new byte[VIEWER_BYTES];
+        int callbacks;
+
+        @Override
+        public void onPageLoaded(int fromPosition, int count) {
+            callbacks++;
+        }
+
+        @Override
+        public void onPageFailed(int fromPosition, int count, Exception error) {
+            callbacks++;
+        }
+    }
+
+    private static class Source implements PageSource<String> {
+
+        @Override
+        public int getCount() {
+            return ITEMS;
+        }
+
+        @Override
+        public List<String> loadPage(int offset, int size) {
+            List<String> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                items.add("https://example.com/" + (offset + i) + ".jpg");
+            }
+            return items;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * The entry transition must end once both its animation and the start image are done, whichever
+ * comes first, including a start image coming from the memory cache before the transition starts.
+ */
+public class EntryTransitionGateTest {
+
+    @Test
+    public void endsWhenImageIsReadyBeforeStart() {
+        EntryTransitionGate gate = new EntryTransitionGate();
+        assertFalse(gate.onImageReady());
+        gate.onStart(true);
+        assertTrue(gate.onAnimationEnd());
+    }
+
+    @Test
+    public void endsWhenImageIsReadyDuringAnimation() {
+        EntryTransitionGate gate = new EntryTransitionGate();
+        gate.onStart(true);
+        assertFalse(gate.onImageReady());
+        assertTrue(gate.onAnimationEnd());
+    }
+
+    @Test
+    public void endsWhenImageIsReadyAfterAnimation() {
+        EntryTransitionGate gate = new EntryTransitionGate();
+        gate.onStart(true);
+        assertFalse(gate.onAnimationEnd());
+        assertTrue(gate.onImageReady());
+    }
+
+    @Test
+    public void endsWithAnimationWhenNotWaitingForImage() {
+        EntryTransitionGate gate = new EntryTransitionGate();
+        gate.onStart(false);
+        assertTrue(gate.onAnimationEnd());
+    }
+}
@@ -0,0 +1,74 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * SwipeDirection.classify must pick the same direction as the angle based get for every vector,
+ * including the ones lying on or next to the diagonals, where the two disagree most easily.
+ */
+public class SwipeDirectionTest {
+
+    private static final int RANDOM_POINTS = 1000000;
+
+    @Test
+    public void classifyMatchesGetForRandomVectors() {
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_POINTS; i++) {
+            float x1 = (random.nextFloat() - 0.5f) * 4000.0f;
+            float y1 = (random.nextFloat() - 0.5f) * 4000.0f;
+            float x2 = (random.nextFloat() - 0.5f) * 4000.0f;
+            float y2 = (random.nextFloat() - 0.5f) * 4000.0f;
+            assertSameDirection(x1, y1, x2, y2);
+        }
+    }
+
+    @Test
+    public void classifyMatchesGetOnDiagonals() {
+        for (int d = 1; d <= 2000; d++) {
+            float distance = d * 0.5f;
+            assertSameDirection(0.0f, 0.0f, distance, distance);
+            assertSameDirection(0.0f, 0.0f, -distance, distance);
+            assertSameDirection(0.0f, 0.0f, -distance, -distance);
+            assertSameDirection(0.0f, 0.0f, distance, -distance);
+        }
+        assertEquals(SwipeDirection.UP, SwipeDirection.classify(0.0f, 0.0f, 10.0f, -10.0f));
+        assertEquals(SwipeDirection.LEFT, SwipeDirection.classify(0.0f, 0.0f, -10.0f, -10.0f));
+        assertEquals(SwipeDirection.DOWN, SwipeDirection.classify(0.0f, 0.0f, -10.0f, 10.0f));
+        assertEquals(SwipeDirection.RIGHT, SwipeDirection.classify(0.0f, 0.0f, 10.0f, 10.0f));
+    }
+
+    @Test
+    public void classifyMatchesGetNextToDiagonals() {
+        for (int d = 1; d <= 2000; d++) {
+            float distance = d * 0.5f;
+            float below = Math.nextDown(distance);
+            float above = Math.nextUp(distance);
+            for (float sx = -1.0f; sx <= 1.0f; sx += 2.0f) {
+                for (float sy = -1.0f; sy <= 1.0f; sy += 2.0f) {
+                    assertSameDirection(0.0f, 0.0f, sx * distance, sy * below);
+                    assertSameDirection(0.0f, 0.0f, sx * distance, sy * above);
+                    assertSameDirection(0.0f, 0.0f, sx * below, sy * distance);
+                    assertSameDirection(0.0f, 0.0f, sx * above, sy * distance);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void classifyMatchesGetOnIntegerGrid() {
+        for (int x = -200; x <= 200; x++) {
+            for (int y = -200; y <= 200; y++) {
+                assertSameDirection(100.0f, 100.0f, 100.0f + x, 100.0f + y);
+            }
+        }
+    }
+
+    private static void assertSameDirection(float x1, float y1, float x2, float y2) {
+        assertEquals("(" + x1 + ", " + y1 + ") -> (" + x2 + ", " + y2 + ")",
+                SwipeDirection.get(x1, y1, x2, y2), SwipeDirection.classify(x1, y1, x2, y2));
+    }
+}
@@ -0,0 +1,55 @@
+package com.stfalcon.frescoimageviewer;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/*
+ * The work done on every ACTION_MOVE of a gesture must not allocate: classifying the swipe, feeding the
+ * pager offset to the prefetch policy and recording a frame for the frame metrics listener. The first
+ * move of a gesture is the exception when a frame metrics listener is set, it starts a new FrameStats
+ * and posts the Choreographer callback; that's done outside of the measured loop below.
+ */
+public class TouchMoveAllocationTest {
+
+    private static final int MOVES = 100000;
+    // what reading the allocation counter itself may cost, far below a single allocation per move
+    private static final long MAX_ALLOCATED_BYTES = 1024;
+    private static final long FRAME_INTERVAL_NANOS = 16666666L;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void steadyStateMovesDoNotAllocate() {
+        AdaptivePrefetchPolicy policy = new AdaptivePrefetchPolicy(5);
+        policy.onPageSelected(10, 0);
+        FrameStats stats = new FrameStats(FrameStats.Gesture.PAGER_DRAG);
+
+        // warms the loop up, so class loading isn't measured
+        move(policy, stats);
+        move(policy, stats);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int sink = move(policy, stats);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Allocated " + allocated + " bytes in " + MOVES + " moves (" + sink + ")",
+                allocated <= MAX_ALLOCATED_BYTES);
+    }
+
+    private static int move(AdaptivePrefetchPolicy policy, FrameStats stats) {
+        int sink = 0;
+        for (int i = 0; i < MOVES; i++) {
+            float x = 500.0f - (i % 400);
+            float y = 800.0f + (i % 7);
+            sink += SwipeDirection.classify(500.0f, 800.0f, x, y).ordinal();
+            policy.onPageScrolled(9 + (i / 200) % 2, (i % 200) / 200.0f, i);
+            stats.record(FRAME_INTERVAL_NANOS + (i % 3) * 1000000L, FRAME_INTERVAL_NANOS);
+        }
+        return sink + policy.getForwardWindow();
+    }
+}
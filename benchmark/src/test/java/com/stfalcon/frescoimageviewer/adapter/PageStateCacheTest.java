@@ -0,0 +1,104 @@
+package com.stfalcon.frescoimageviewer.adapter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/*
+ * The saved page states must stay bounded however many pages a session visits, dropping the
+ * least recently saved ones first, and flatten into three floats per page.
+ */
+public class PageStateCacheTest {
+
+    private static final int VISITED_PAGES = 10000;
+
+    @Test
+    public void savedStateStaysBoundedAfterVisitingManyPages() {
+        PageStateCache cache = new PageStateCache();
+        for (int i = 0; i < VISITED_PAGES; i++) {
+            cache.put(i, state(2.0f, i, -i));
+        }
+
+        int max = PageStateCache.DEFAULT_MAX_SIZE;
+        assertEquals(max, cache.size());
+        long[] ids = cache.getIds();
+        float[] values = cache.getValues();
+        assertEquals(max, ids.length);
+        assertEquals(max * 3, values.length);
+        // the most recently saved pages are kept, oldest first
+        for (int i = 0; i < max; i++) {
+            long id = VISITED_PAGES - max + i;
+            assertEquals(id, ids[i]);
+            assertEquals(2.0f, values[i * 3], 0.0f);
+            assertEquals(id, values[i * 3 + 1], 0.0f);
+            assertEquals(-id, values[i * 3 + 2], 0.0f);
+        }
+    }
+
+    @Test
+    public void savingAgainRefreshesThePage() {
+        PageStateCache cache = new PageStateCache();
+        cache.setMaxSize(3);
+        cache.put(1, state(2.0f, 0.0f, 0.0f));
+        cache.put(2, state(2.0f, 0.0f, 0.0f));
+        cache.put(3, state(2.0f, 0.0f, 0.0f));
+        cache.put(1, state(3.0f, 0.0f, 0.0f));
+        cache.put(4, state(2.0f, 0.0f, 0.0f));
+
+        assertArrayEquals(new long[] {3, 1, 4}, cache.getIds());
+    }
+
+    @Test
+    public void shrinkingDropsTheOldestPages() {
+        PageStateCache cache = new PageStateCache();
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, state(2.0f, 0.0f, 0.0f));
+        }
+        cache.setMaxSize(4);
+
+        assertArrayEquals(new long[] {6, 7, 8, 9}, cache.getIds());
+    }
+
+    @Test
+    public void restoredPageIsConsumed() {
+        PageStateCache cache = new PageStateCache();
+        cache.put(7, state(2.5f, 10.0f, -20.0f));
+
+        PageState state = cache.remove(7);
+        assertNotNull(state);
+        assertEquals(2.5f, state.getScale(), 0.0f);
+        assertNull(cache.remove(7));
+    }
+
+    @Test
+    public void flattenedValuesRoundTrip() {
+        PageStateCache cache = new PageStateCache();
+        for (int i = 0; i < 100; i++) {
+            cache.put(i * 31L, state(1.0f + i, i * 2.0f, i * -3.0f));
+        }
+
+        PageStateCache restored = new PageStateCache();
+        restored.setValues(cache.getIds(), cache.getValues());
+
+        assertArrayEquals(cache.getIds(), restored.getIds());
+        assertArrayEquals(cache.getValues(), restored.getValues(), 0.0f);
+    }
+
+    @Test
+    public void mismatchedValuesAreIgnored() {
+        PageStateCache cache = new PageStateCache();
+        cache.put(1, state(2.0f, 0.0f, 0.0f));
+        cache.setValues(new long[] {1, 2}, new float[] {2.0f, 0.0f, 0.0f});
+
+        assertEquals(0, cache.size());
+    }
+
+    private static PageState state(float scale, float translationX, float translationY) {
+        PageState state = new PageState();
+        state.set(scale, translationX, translationY);
+        return state;
+    }
+}
@@ -0,0 +1,100 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Default {@link PrefetchPolicy}. Widens the lookahead in the direction of travel while the user
+ * is paging fast and shrinks it behind; falls back to a single page around the current one
+ * when the user browses slowly.
+ */
+public class AdaptivePrefetchPolicy implements PrefetchPolicy {
+
+    static final long IDLE_TIMEOUT_MILLIS = 1500;
+    static final float FAST_PAGES_PER_SECOND = 3.0f;
+
+    // weight of the newest sample in the smoothed paging speed
+    private static final float SMOOTHING = 0.5f;
+
+    private final int maxWindow;
+
+    private int selectedPosition = -1;
+    private long selectedTime;
+    private float pagesPerSecond;
+    private int direction = 1;
+    // position + offset of the previous onPageScrolled, or -1
+    private float lastScroll = -1.0f;
+    private long lastScrollTime;
+
+    private int forwardWindow = 1;
+    private int backwardWindow = 1;
+
+    /**
+     * @param maxWindow the widest lookahead used during fast flings
+     */
+    public AdaptivePrefetchPolicy(int maxWindow) {
+        this.maxWindow = Math.max(0, maxWindow);
+        resetWindows();
+    }
+
+    @Override
+    public void onPageScrolled(int position, float positionOffset, long timeMillis) {
+        float scroll = position + positionOffset;
+        // the selected page changes before a swipe settles, so the direction is taken from the scroll
+        // itself; samples of different gestures aren't compared
+        if (lastScroll >= 0.0f && scroll != lastScroll && timeMillis - lastScrollTime <= IDLE_TIMEOUT_MILLIS) {
+            direction = scroll > lastScroll ? 1 : -1;
+        }
+        lastScroll = scroll;
+        lastScrollTime = timeMillis;
+    }
+
+    @Override
+    public void onPageSelected(int position, long timeMillis) {
+        if (selectedPosition < 0) {
+            selectedPosition = position;
+            selectedTime = timeMillis;
+            resetWindows();
+            return;
+        }
+
+        int distance = position - selectedPosition;
+        long elapsed = Math.max(1, timeMillis - selectedTime);
+        if (distance != 0) {
+            direction = distance > 0 ? 1 : -1;
+        }
+
+        if (elapsed > IDLE_TIMEOUT_MILLIS) {
+            pagesPerSecond = 0.0f;
+        } else {
+            float speed = Math.abs(distance) * 1000.0f / elapsed;
+            pagesPerSecond = SMOOTHING * speed + (1.0f - SMOOTHING) * pagesPerSecond;
+        }
+
+        selectedPosition = position;
+        selectedTime = timeMillis;
+
+        if (pagesPerSecond == 0.0f) {
+            resetWindows();
+            return;
+        }
+
+        float ratio = Math.min(1.0f, pagesPerSecond / FAST_PAGES_PER_SECOND);
+        int ahead = Math.min(maxWindow, 1 + Math.round((maxWindow - 1) * ratio));
+        int behind = ratio < 1.0f ? Math.min(maxWindow, 1) : 0;
+
+        forwardWindow = direction > 0 ? ahead : behind;
+        backwardWindow = direction > 0 ? behind : ahead;
+    }
+
+    @Override
+    public int getForwardWindow() {
+        return forwardWindow;
+    }
+
+    @Override
+    public int getBackwardWindow() {
+        return backwardWindow;
+    }
+
+    private void resetWindows() {
+        forwardWindow = backwardWindow = Math.min(maxWindow, 1);
+    }
+}
@@ -0,0 +1,188 @@
+package com.stfalcon.frescoimageviewer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/*
+ * Android-free part of {@link ImageViewer.DataSet}, so the formatting path can be benchmarked
+ * on a plain JVM.
+ */
+class BaseDataSet<T> {
+
+    // FNV-1a 64 bit
+    private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    private List<T> data;
+    UrlFormatter<T> formatter;
+    ItemIdProvider<T> idProvider;
+
+    // formatted urls by position, least recently used first; guarded by this
+    private volatile Map<Integer, String> urls;
+    private int urlCacheSize;
+    // bumped when the data changes, so late results of preformat() are dropped
+    private int generation;
+
+    BaseDataSet(List<T> data) {
+        this.data = data;
+    }
+
+    int size() {
+        return data.size();
+    }
+
+    /**
+     * @return the item, or {@code null} if it's a placeholder of a page which is not loaded yet
+     */
+    T get(int position) {
+        return data.get(position);
+    }
+
+    /**
+     * @return the url of the item, or {@code null} for a placeholder
+     */
+    String format(int position) {
+        T t = data.get(position);
+        if (t == null) {
+            return null;
+        }
+        if (urls == null) {
+            return format(t);
+        }
+        String url = getCachedUrl(position);
+        if (url == null) {
+            url = format(t);
+            putCachedUrl(position, url, getGeneration());
+        }
+        return url;
+    }
+
+    String format(T t) {
+        if (formatter == null) return t.toString();
+        else return formatter.format(t);
+    }
+
+    /**
+     * @return the id of the item given by {@link #idProvider}, or a 64 bit hash of its url
+     */
+    long getItemId(int position) {
+        T t = data.get(position);
+        if (t == null) {
+            // a placeholder is replaced, not moved, once its page is loaded
+            return Long.MIN_VALUE + position;
+        }
+        if (idProvider != null) {
+            return idProvider.getItemId(t);
+        }
+        return hash(format(position));
+    }
+
+    static long hash(String s) {
+        long hash = HASH_OFFSET;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            hash ^= s.charAt(i);
+            hash *= HASH_PRIME;
+        }
+        return hash;
+    }
+
+    public List<T> getData() {
+        return data;
+    }
+
+    void setData(List<T> data) {
+        synchronized (this) {
+            generation++;
+            if (urls != null) {
+                urls.clear();
+            }
+        }
+        this.data = data;
+    }
+
+    /**
+     * Keeps up to {@code maxSize} formatted urls, so the formatter runs once per item while it's cached.
+     * The urls are dropped when the data is replaced. Pass 0 to disable the cache.
+     */
+    synchronized void setUrlCacheSize(final int maxSize) {
+        urlCacheSize = Math.max(0, maxSize);
+        if (urlCacheSize == 0) {
+            urls = null;
+            return;
+        }
+        Map<Integer, String> previous = urls;
+        urls = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > urlCacheSize;
+            }
+        };
+        if (previous != null) {
+            urls.putAll(previous);
+        }
+    }
+
+    synchronized int getUrlCacheSize() {
+        return urlCacheSize;
+    }
+
+    /**
+     * Formats the urls of the items in [from, to] into the url cache on {@code executor}.
+     * The formatter is then called from two threads, so it must be thread safe.
+     */
+    void preformat(Executor executor, int from, int to) {
+        // the items are read here, a paged list may only be read from the thread changing it
+        final int start = Math.max(0, from);
+        final List<T> items = new ArrayList<>();
+        for (int i = start, n = Math.min(to, data.size() - 1); i <= n; i++) {
+            items.add(data.get(i));
+        }
+        final int generation = getGeneration();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0, n = items.size(); i < n; i++) {
+                    if (getGeneration() != generation) {
+                        return;
+                    }
+                    T t = items.get(i);
+                    if (t != null && getCachedUrl(start + i) == null) {
+                        putCachedUrl(start + i, format(t), generation);
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized int getGeneration() {
+        return generation;
+    }
+
+    private synchronized String getCachedUrl(int position) {
+        return urls != null ? urls.get(position) : null;
+    }
+
+    private synchronized void putCachedUrl(int position, String url, int generation) {
+        if (urls != null && generation == this.generation) {
+            urls.put(position, url);
+        }
+    }
+
+    /**
+     * Loads the pages around {@code position} if the items come from a {@link PageSource}.
+     */
+    void loadAround(int position) {
+        if (data instanceof PagedList) {
+            ((PagedList<T>) data).loadAround(position);
+        }
+    }
+
+    void setPageListener(PagedList.Listener listener) {
+        if (data instanceof PagedList) {
+            ((PagedList<T>) data).setListener(listener);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.LruCache;
+
+/*
+ * LRU cache of decoded bitmaps bounded by their size in bytes. Thread-safe.
+ */
+class BitmapCache {
+
+    private final LruCache<Object, Bitmap> cache;
+
+    BitmapCache(int maxSizeBytes) {
+        cache = new LruCache<Object, Bitmap>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(Object key, Bitmap value) {
+                return getByteCount(value);
+            }
+        };
+    }
+
+    /**
+     * @return an eighth of the heap available to the app
+     */
+    static int getDefaultMaxSize() {
+        return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    Bitmap get(Object key) {
+        return cache.get(key);
+    }
+
+    void put(Object key, Bitmap bitmap) {
+        cache.put(key, bitmap);
+    }
+
+    void evictAll() {
+        cache.evictAll();
+    }
+
+    private static int getByteCount(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+}
@@ -0,0 +1,212 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.DecelerateInterpolator;
+import android.widget.ImageView;
+
+import com.facebook.cache.common.CacheKey;
+import com.facebook.common.references.CloseableReference;
+import com.facebook.drawee.backends.pipeline.Fresco;
+import com.facebook.imagepipeline.cache.CacheKeyFactory;
+import com.facebook.imagepipeline.core.ImagePipeline;
+import com.facebook.imagepipeline.image.CloseableImage;
+import com.facebook.imagepipeline.image.CloseableStaticBitmap;
+import com.facebook.imagepipeline.request.ImageRequest;
+
+/*
+ * Animates the thumbnail the viewer was opened from into the place of the start image, then keeps
+ * it over the pager until the start image is shown, so the tapped image is on screen right away.
+ * The thumbnail is cropped to the source bounds like a CENTER_CROP view and ends fitted to the viewport.
+ */
+class EntryTransition {
+
+    private static final long DURATION_MILLIS = 250;
+
+    interface Listener {
+
+        /**
+         * Called once the thumbnail was removed and the pager is visible.
+         */
+        void onTransitionEnd();
+    }
+
+    private final Rect sourceBounds;
+    private final Bitmap bitmap;
+    // keeps a thumbnail from Fresco's bitmap cache alive while it's shown
+    private CloseableReference<CloseableImage> imageReference;
+
+    private ViewGroup container;
+    private View target;
+    private ImageView thumbnailView;
+    private ValueAnimator animator;
+    private Listener listener;
+
+    private final EntryTransitionGate gate = new EntryTransitionGate();
+    private boolean isFinished;
+
+    private EntryTransition(Rect sourceBounds, Bitmap bitmap, CloseableReference<CloseableImage> imageReference) {
+        this.sourceBounds = sourceBounds;
+        this.bitmap = bitmap;
+        this.imageReference = imageReference;
+    }
+
+    /**
+     * @param sourceBounds bounds of the thumbnail view in screen coordinates
+     */
+    static EntryTransition fromBitmap(Rect sourceBounds, Bitmap bitmap) {
+        return new EntryTransition(sourceBounds, bitmap, null);
+    }
+
+    /**
+     * @return the transition, or {@code null} if the image of {@code request} isn't in Fresco's bitmap cache
+     */
+    static EntryTransition fromBitmapCache(Rect sourceBounds, ImageRequest request) {
+        ImagePipeline pipeline = Fresco.getImagePipeline();
+        CacheKeyFactory keyFactory = pipeline.getCacheKeyFactory();
+        CacheKey key = request.getPostprocessor() != null
+                ? keyFactory.getPostprocessedBitmapCacheKey(request, null)
+                : keyFactory.getBitmapCacheKey(request, null);
+        CloseableReference<CloseableImage> reference = pipeline.getBitmapMemoryCache().get(key);
+        if (reference == null) {
+            return null;
+        }
+        if (!(reference.get() instanceof CloseableStaticBitmap)) {
+            CloseableReference.closeSafely(reference);
+            return null;
+        }
+        Bitmap bitmap = ((CloseableStaticBitmap) reference.get()).getUnderlyingBitmap();
+        return new EntryTransition(sourceBounds, bitmap, reference);
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the animation. The container and the target must be laid out.
+     *
+     * @param container        view the thumbnail is added to
+     * @param target           view showing the images, hidden until the transition ends
+     * @param background       view faded in with the animation
+     * @param isWaitingForImage whether the thumbnail stays until {@link #onImageReady()}
+     */
+    void start(ViewGroup container, View target, final View background, boolean isWaitingForImage) {
+        this.container = container;
+        this.target = target;
+        gate.onStart(isWaitingForImage);
+
+        int[] containerLocation = new int[2];
+        int[] targetLocation = new int[2];
+        container.getLocationOnScreen(containerLocation);
+        target.getLocationOnScreen(targetLocation);
+
+        // the start image, fitted to the viewport like a FIT_CENTER drawee
+        float viewportLeft = targetLocation[0] - containerLocation[0] + target.getPaddingLeft();
+        float viewportTop = targetLocation[1] - containerLocation[1] + target.getPaddingTop();
+        int viewportWidth = target.getWidth() - target.getPaddingLeft() - target.getPaddingRight();
+        int viewportHeight = target.getHeight() - target.getPaddingTop() - target.getPaddingBottom();
+        if (viewportWidth <= 0 || viewportHeight <= 0 || sourceBounds.isEmpty()) {
+            finish();
+            return;
+        }
+        float fit = Math.min((float) viewportWidth / bitmap.getWidth(), (float) viewportHeight / bitmap.getHeight());
+        final int width = Math.round(bitmap.getWidth() * fit);
+        final int height = Math.round(bitmap.getHeight() * fit);
+        final float endX = viewportLeft + (viewportWidth - width) / 2.0f;
+        final float endY = viewportTop + (viewportHeight - height) / 2.0f;
+
+        // the same image, scaled to cover the source bounds
+        float sourceWidth = sourceBounds.width();
+        float sourceHeight = sourceBounds.height();
+        final float startScale = Math.max(sourceWidth / width, sourceHeight / height);
+        final float startX = sourceBounds.exactCenterX() - containerLocation[0] - width * startScale / 2.0f;
+        final float startY = sourceBounds.exactCenterY() - containerLocation[1] - height * startScale / 2.0f;
+        final float startClipX = (width - sourceWidth / startScale) / 2.0f;
+        final float startClipY = (height - sourceHeight / startScale) / 2.0f;
+
+        thumbnailView = new ImageView(container.getContext());
+        thumbnailView.setScaleType(ImageView.ScaleType.FIT_XY);
+        thumbnailView.setImageBitmap(bitmap);
+        thumbnailView.setPivotX(0.0f);
+        thumbnailView.setPivotY(0.0f);
+        container.addView(thumbnailView, new ViewGroup.LayoutParams(width, height));
+
+        target.setAlpha(0.0f);
+
+        final Rect clip = new Rect();
+        animator = ValueAnimator.ofFloat(0.0f, 1.0f);
+        animator.setDuration(DURATION_MILLIS);
+        animator.setInterpolator(new DecelerateInterpolator());
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                float fraction = animation.getAnimatedFraction();
+                float scale = startScale + (1.0f - startScale) * fraction;
+                thumbnailView.setScaleX(scale);
+                thumbnailView.setScaleY(scale);
+                thumbnailView.setTranslationX(startX + (endX - startX) * fraction);
+                thumbnailView.setTranslationY(startY + (endY - startY) * fraction);
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                    int clipX = Math.round(startClipX * (1.0f - fraction));
+                    int clipY = Math.round(startClipY * (1.0f - fraction));
+                    clip.set(clipX, clipY, width - clipX, height - clipY);
+                    thumbnailView.setClipBounds(clip);
+                }
+                if (background != null) {
+                    background.setAlpha(fraction);
+                }
+            }
+        });
+        animator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                if (gate.onAnimationEnd()) {
+                    finish();
+                }
+            }
+        });
+        animator.start();
+    }
+
+    /**
+     * Called when the start image was shown or failed to load. Removes the thumbnail once it's in place.
+     */
+    void onImageReady() {
+        if (gate.onImageReady()) {
+            finish();
+        }
+    }
+
+    /**
+     * Removes the thumbnail right away, e.g. when the user interacts with the pager.
+     */
+    void finish() {
+        if (isFinished) {
+            return;
+        }
+        isFinished = true;
+        if (animator != null) {
+            animator.removeAllListeners();
+            animator.end();
+        }
+        if (target != null) {
+            target.setAlpha(1.0f);
+        }
+        if (container != null && thumbnailView != null) {
+            container.removeView(thumbnailView);
+            thumbnailView.setImageDrawable(null);
+        }
+        CloseableReference.closeSafely(imageReference);
+        imageReference = null;
+        if (listener != null) {
+            listener.onTransitionEnd();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Decides when an {@link EntryTransition} ends: once its animation ended and, if it waits for the
+ * start image, once that image is ready. A start image from the memory cache may be ready before
+ * the animation even starts. Plain Java, so it can be tested off-device.
+ */
+class EntryTransitionGate {
+
+    private boolean isWaitingForImage;
+    private boolean isImageReady;
+    private boolean isAnimationEnded;
+
+    void onStart(boolean isWaitingForImage) {
+        this.isWaitingForImage = isWaitingForImage;
+    }
+
+    /**
+     * @return whether the transition can end now
+     */
+    boolean onImageReady() {
+        isImageReady = true;
+        return canEnd();
+    }
+
+    /**
+     * @return whether the transition can end now
+     */
+    boolean onAnimationEnd() {
+        isAnimationEnded = true;
+        return canEnd();
+    }
+
+    private boolean canEnd() {
+        return isAnimationEnded && (isImageReady || !isWaitingForImage);
+    }
+}
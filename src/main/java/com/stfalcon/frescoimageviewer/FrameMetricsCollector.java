@@ -0,0 +1,66 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.view.Choreographer;
+
+/*
+ * Records the frame times of one gesture at a time with a {@link Choreographer} callback,
+ * which is only posted while a gesture is in progress. Starting a gesture ends the previous one.
+ * Starting one allocates its {@link FrameStats} and posts the callback, so the first ACTION_MOVE of
+ * a gesture allocates while a listener is set. The following frames don't allocate.
+ */
+class FrameMetricsCollector implements Choreographer.FrameCallback {
+
+    private final FrameMetricsListener listener;
+    private final long frameIntervalNanos;
+
+    private FrameStats stats;
+    private long lastFrameNanos;
+
+    FrameMetricsCollector(FrameMetricsListener listener, float refreshRate) {
+        this.listener = listener;
+        this.frameIntervalNanos = (long) (1000000000L / (refreshRate > 0.0f ? refreshRate : 60.0f));
+    }
+
+    void begin(FrameStats.Gesture gesture) {
+        if (stats != null && stats.getGesture() == gesture) {
+            return;
+        }
+        end();
+        stats = new FrameStats(gesture);
+        lastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Ends {@code gesture} if it's in progress.
+     */
+    void end(FrameStats.Gesture gesture) {
+        if (stats != null && stats.getGesture() == gesture) {
+            end();
+        }
+    }
+
+    void end() {
+        if (stats == null) {
+            return;
+        }
+        Choreographer.getInstance().removeFrameCallback(this);
+        FrameStats finished = stats;
+        stats = null;
+        if (finished.getFrameCount() > 0) {
+            listener.onGestureFrames(finished);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (stats == null) {
+            return;
+        }
+        if (lastFrameNanos > 0) {
+            stats.record(frameTimeNanos - lastFrameNanos, frameIntervalNanos);
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
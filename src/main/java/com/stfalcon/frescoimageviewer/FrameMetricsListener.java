@@ -0,0 +1,12 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Receives the frame durations of the viewer's gestures, e.g. to track jank in production.
+ */
+public interface FrameMetricsListener {
+
+    /**
+     * Called on the UI thread when a gesture ended.
+     */
+    void onGestureFrames(FrameStats stats);
+}
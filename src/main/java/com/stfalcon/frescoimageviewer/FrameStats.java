@@ -0,0 +1,97 @@
+package com.stfalcon.frescoimageviewer;
+
+import java.util.Arrays;
+
+/*
+ * Frame durations recorded during one gesture, reported to a {@link FrameMetricsListener}.
+ */
+public class FrameStats {
+
+    public enum Gesture {
+        PAGER_DRAG,
+        ZOOM,
+        DISMISS_TRACKING,
+        DISMISS_ANIMATION
+    }
+
+    // upper bounds of the histogram buckets, the last bucket holds the longer frames
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            8000000L, 16700000L, 25000000L, 33400000L, 50000000L, 100000000L
+    };
+
+    private final Gesture gesture;
+    private final int[] histogram = new int[BUCKET_BOUNDS_NANOS.length + 1];
+    private int frameCount;
+    private int droppedFrames;
+    private long durationNanos;
+    private long maxFrameNanos;
+
+    FrameStats(Gesture gesture) {
+        this.gesture = gesture;
+    }
+
+    /**
+     * @param frameNanos         time since the previous frame
+     * @param frameIntervalNanos refresh interval of the display
+     */
+    void record(long frameNanos, long frameIntervalNanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && frameNanos > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        histogram[bucket]++;
+        frameCount++;
+        // a frame spanning n refresh intervals skipped n - 1 of them, half an interval is jitter
+        droppedFrames += Math.max(0, (int) ((frameNanos + frameIntervalNanos / 2) / frameIntervalNanos) - 1);
+        durationNanos += frameNanos;
+        maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+    }
+
+    public Gesture getGesture() {
+        return gesture;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getDroppedFrameCount() {
+        return droppedFrames;
+    }
+
+    public long getDurationMillis() {
+        return durationNanos / 1000000L;
+    }
+
+    public float getMaxFrameMillis() {
+        return maxFrameNanos / 1000000.0f;
+    }
+
+    /**
+     * @return frame counts per bucket, see {@link #getBucketUpperBoundsMillis()}
+     */
+    public int[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * @return the upper bound of every histogram bucket but the last one, which is unbounded
+     */
+    public static float[] getBucketUpperBoundsMillis() {
+        float[] bounds = new float[BUCKET_BOUNDS_NANOS.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = BUCKET_BOUNDS_NANOS[i] / 1000000.0f;
+        }
+        return bounds;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameStats{gesture=" + gesture
+                + ", frames=" + frameCount
+                + ", dropped=" + droppedFrames
+                + ", durationMillis=" + getDurationMillis()
+                + ", maxFrameMillis=" + getMaxFrameMillis()
+                + ", histogram=" + Arrays.toString(histogram) + '}';
+    }
+}
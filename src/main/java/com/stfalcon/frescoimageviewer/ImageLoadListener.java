@@ -0,0 +1,42 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Receives the load timeline of the viewer's pages, e.g. to track it on a dashboard.
+ * Called on the UI thread; times are in {@code SystemClock.uptimeMillis()} time base.
+ * The sharper decode loaded when a page is zoomed in isn't reported.
+ */
+public interface ImageLoadListener {
+
+    /**
+     * Called when a page starts showing a new image.
+     *
+     * @param url the url of a drawee page, {@code null} for plain pages
+     */
+    void onImageBound(int position, String url, long timeMillis);
+
+    /**
+     * Called when the image request of a drawee page was submitted to the pipeline.
+     */
+    void onImageSubmitted(int position, long timeMillis);
+
+    /**
+     * Called when a drawee page showed a low resolution or partial image.
+     */
+    void onIntermediateImageSet(int position, long timeMillis);
+
+    /**
+     * Called when a page showed its image.
+     *
+     * @param source where the image was loaded from
+     */
+    void onFinalImageSet(int position, ImageSource source, long timeMillis);
+
+    void onImageFailed(int position, Throwable throwable, long timeMillis);
+
+    /**
+     * Called once, when the first image of the viewer was shown.
+     *
+     * @param sinceShowMillis time since {@link ImageViewer#show} was called
+     */
+    void onFirstImageSet(long sinceShowMillis);
+}
@@ -0,0 +1,149 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.os.SystemClock;
+import android.util.SparseArray;
+
+import com.facebook.datasource.DataSource;
+import com.facebook.drawee.backends.pipeline.Fresco;
+import com.facebook.imagepipeline.common.Priority;
+import com.facebook.imagepipeline.core.ImagePipeline;
+import com.facebook.imagepipeline.request.ImageRequest;
+
+/*
+ * Pushes the images around the current page into Fresco's caches, so the neighbours are
+ * ready before the pager instantiates them. The window is decided by a {@link PrefetchPolicy}.
+ * Must be used from the UI thread.
+ */
+class ImagePrefetcher {
+
+    static final int DEFAULT_WINDOW = 4;
+
+    private final ImageViewerAdapter adapter;
+    private final PrefetchPolicy policy;
+    private final PrefetchStats stats = new PrefetchStats();
+    private final SparseArray<DataSource<Void>> inFlight = new SparseArray<>();
+
+    private Priority priority = Priority.LOW;
+    private boolean hasSelection;
+    private boolean isSuspended;
+
+    ImagePrefetcher(ImageViewerAdapter adapter, PrefetchPolicy policy) {
+        this.adapter = adapter;
+        this.policy = policy;
+    }
+
+    void setPriority(Priority priority) {
+        this.priority = priority != null ? priority : Priority.LOW;
+    }
+
+    PrefetchStats getStats() {
+        return stats;
+    }
+
+    void onPageScrolled(int position, float positionOffset) {
+        policy.onPageScrolled(position, positionOffset, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Requests the images inside the policy's window around {@code position} and cancels
+     * in-flight requests which fell out of it.
+     */
+    void onPageSelected(int position) {
+        if (isSuspended) {
+            return;
+        }
+        if (hasSelection) {
+            countHit(position);
+        }
+        hasSelection = true;
+        policy.onPageSelected(position, SystemClock.uptimeMillis());
+
+        int from = Math.max(0, position - policy.getBackwardWindow());
+        int to = Math.min(adapter.getItemCount() - 1, position + policy.getForwardWindow());
+
+        cancelOutside(position, from, to);
+
+        ImagePipeline pipeline = null;
+        for (int i = from; i <= to; i++) {
+            if (i == position || inFlight.get(i) != null) {
+                continue;
+            }
+            String url = adapter.getUrl(i);
+            if (url == null) {
+                continue;
+            }
+            if (pipeline == null) {
+                pipeline = Fresco.getImagePipeline();
+            }
+            ImageRequest request = adapter.buildImageRequest(url);
+            if (request == null) {
+                continue;
+            }
+            // the closest neighbours are decoded right away, the rest only hit the disk cache
+            DataSource<Void> dataSource = Math.abs(i - position) <= 1
+                    ? pipeline.prefetchToBitmapCache(request, null)
+                    : pipeline.prefetchToDiskCache(request, null, priority);
+            inFlight.put(i, dataSource);
+            stats.requested++;
+        }
+    }
+
+    /**
+     * Cancels the prefetches and ignores page changes until {@link #resume(int)}, e.g. under memory pressure.
+     */
+    void suspend() {
+        isSuspended = true;
+        cancelAll();
+    }
+
+    void resume(int position) {
+        if (isSuspended) {
+            isSuspended = false;
+            onDataSetChanged(position);
+        }
+    }
+
+    /**
+     * Restarts prefetching around {@code position} after the items changed, as the prefetched
+     * positions may now hold other images.
+     */
+    void onDataSetChanged(int position) {
+        cancelAll();
+        hasSelection = false;
+        onPageSelected(position);
+    }
+
+    void cancelAll() {
+        for (int i = 0, n = inFlight.size(); i < n; i++) {
+            DataSource<Void> dataSource = inFlight.valueAt(i);
+            if (!dataSource.isFinished()) {
+                stats.cancelled++;
+            }
+            dataSource.close();
+        }
+        inFlight.clear();
+    }
+
+    private void countHit(int position) {
+        DataSource<Void> dataSource = inFlight.get(position);
+        if (dataSource != null && dataSource.isFinished() && !dataSource.hasFailed()) {
+            stats.hits++;
+        } else {
+            stats.misses++;
+        }
+    }
+
+    private void cancelOutside(int position, int from, int to) {
+        for (int i = inFlight.size() - 1; i >= 0; i--) {
+            int key = inFlight.keyAt(i);
+            if (key == position || key < from || key > to) {
+                DataSource<Void> dataSource = inFlight.valueAt(i);
+                if (!dataSource.isFinished()) {
+                    stats.cancelled++;
+                }
+                dataSource.close();
+                inFlight.removeAt(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.stfalcon.frescoimageviewer;
+
+import com.facebook.drawee.backends.pipeline.info.ImageOrigin;
+
+/*
+ * Where the image of a page was loaded from, reported to an {@link ImageLoadListener}.
+ */
+public enum ImageSource {
+
+    MEMORY,
+    DISK,
+    NETWORK,
+    LOCAL,
+    UNKNOWN;
+
+    static ImageSource fromImageOrigin(int imageOrigin) {
+        switch (imageOrigin) {
+            case ImageOrigin.MEMORY_BITMAP:
+            case ImageOrigin.MEMORY_BITMAP_SHORTCUT:
+            case ImageOrigin.MEMORY_ENCODED:
+                return MEMORY;
+            case ImageOrigin.DISK:
+                return DISK;
+            case ImageOrigin.NETWORK:
+                return NETWORK;
+            case ImageOrigin.LOCAL:
+                return LOCAL;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
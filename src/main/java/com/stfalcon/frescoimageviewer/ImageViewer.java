@@ -19,19 +19,27 @@ package com.stfalcon.frescoimageviewer;
 import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
+import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.graphics.Rect;
 import android.net.Uri;
 import androidx.annotation.ColorInt;
 import androidx.annotation.ColorRes;
 import androidx.annotation.DimenRes;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StyleRes;
 
 import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.viewpager.widget.ViewPager;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.LayoutInflater;
@@ -39,11 +47,14 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import com.facebook.drawee.generic.GenericDraweeHierarchyBuilder;
+import com.facebook.imagepipeline.common.Priority;
+import com.facebook.imagepipeline.request.ImageRequest;
 import com.facebook.imagepipeline.request.ImageRequestBuilder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static com.stfalcon.frescoimageviewer.ImageViewerAdapter.IMAGE_VIEW_TYPE_DRAWEE;
 
@@ -54,13 +65,23 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
 
     private static final String TAG = ImageViewer.class.getSimpleName();
 
+    private static final String STATE_POSITION = TAG + ".position";
+
     private Builder builder;
     // private AlertDialog dialog;
     private ImageViewerView viewer;
 
     private boolean isShowing;
+    // uptime of show(), -1 once handed to the view
+    private long shownAtMillis = -1;
+    // page shown before the viewer was recreated, -1 to start at the builder's position
+    private int restoredPosition = -1;
 
-    protected ImageViewer() {
+    /**
+     * Used by the system to recreate the viewer, e.g. after a configuration change. The images and options
+     * of the builder are retained meanwhile, the overlay view and listeners are not, see {@link #getBuilder()}.
+     */
+    public ImageViewer() {
         isShowing = false;
     }
 
@@ -73,12 +94,49 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
         this.builder = builder;
     }
 
+    /**
+     * After a configuration change the viewer is recreated without the overlay view and the listeners,
+     * which belonged to the destroyed activity. Set them again on the returned builder from the new activity's
+     * {@code onCreate}, the viewer reads them when its view is created.
+     *
+     * @return the builder of the viewer, or {@code null} once it was destroyed
+     */
+    public Builder getBuilder() {
+        return builder;
+    }
+
+    /**
+     * @return the viewer shown in {@code fragmentManager}, e.g. one recreated after a configuration change,
+     * or {@code null} if there is none
+     */
+    public static ImageViewer find(FragmentManager fragmentManager) {
+        return (ImageViewer) fragmentManager.findFragmentByTag(TAG);
+    }
+
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        if (null == builder)
+        RetainedBuilder retained = RetainedBuilder.get(this);
+        if (null != builder)
+            retained.builder = builder;
+        else if (null != retained.builder)
+            builder = retained.builder;
+        else
             builder = new Builder(getContext(), new Object[] {});
+
+        if (savedInstanceState != null) {
+            restoredPosition = savedInstanceState.getInt(STATE_POSITION, -1);
+            isShowing = true;
+        }
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (viewer != null) {
+            outState.putInt(STATE_POSITION, viewer.getCurrentPosition());
+        }
     }
 
     public void setShowing(boolean showing) {
@@ -99,8 +157,11 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
      * Displays the built viewer if passed images list isn't empty
      */
     public void show(FragmentManager fragmentManager) {
-        if (!builder.dataSet.data.isEmpty()) {
+        if (builder == null) {
+            Log.w(TAG, "The viewer was destroyed, build a new one! Viewer ignored.");
+        } else if (!builder.dataSet.getData().isEmpty()) {
             isShowing = true;
+            shownAtMillis = SystemClock.uptimeMillis();
 
             show(fragmentManager, TAG);
             //dialog.show();
@@ -109,6 +170,26 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        if (viewer != null) {
+            viewer.release();
+            viewer = null;
+        }
+        super.onDestroyView();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (builder != null && getActivity() != null && getActivity().isChangingConfigurations()) {
+            // the builder is retained for the recreated viewer, but must not keep the old activity alive
+            builder.dropActivityReferences();
+        }
+        // the builder holds the overlay view and the listeners of the caller
+        builder = null;
+    }
+
     @Override
     public void onStart() {
         super.onStart();
@@ -124,19 +205,55 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
         return viewer.getUrl();
     }
 
+    /**
+     * Replaces the images of the viewer. Pages whose image is still in the list keep their loaded image,
+     * even if it moved, only inserted and changed images are loaded. The list must hold objects of the
+     * type the viewer was built with.
+     */
+    @SuppressWarnings("unchecked")
+    public void submitList(List<?> images) {
+        if (viewer != null) {
+            viewer.submitList(images);
+        } else if (builder != null) {
+            ((DataSet<Object>) builder.dataSet).setData((List<Object>) images);
+        }
+    }
+
+    /**
+     * @return counters of the image prefetcher, or {@code null} if nothing is prefetched
+     */
+    public PrefetchStats getPrefetchStats() {
+        return viewer != null ? viewer.getPrefetchStats() : null;
+    }
+
     protected void initDialog() {
         if (null == viewer)
             viewer = new ImageViewerView(getContext());
         viewer.setCustomImageRequestBuilder(builder.customImageRequestBuilder);
+        viewer.setImageRequestFactory(builder.imageRequestFactory);
         viewer.setCustomDraweeHierarchyBuilder(builder.customHierarchyBuilder);
         viewer.allowZooming(builder.isZoomingAllowed);
         viewer.allowSwipeToDismiss(builder.isSwipeToDismissAllowed);
+        viewer.setViewportDecodingEnabled(builder.isViewportDecodingEnabled);
+        viewer.setTiledDecodingEnabled(builder.isTiledDecodingEnabled);
+        viewer.setProgressiveRenderingEnabled(builder.isProgressiveRenderingEnabled);
+        viewer.setBitmapCacheSize(builder.bitmapCacheSizeBytes);
+        viewer.setOffscreenPageLimit(builder.offscreenPageLimit);
+        viewer.setPrefetchWindow(builder.prefetchWindow);
+        viewer.setPrefetchPriority(builder.prefetchPriority);
+        viewer.setPrefetchPolicy(builder.prefetchPolicy);
+        viewer.setImageLoadListener(builder.imageLoadListener, shownAtMillis);
+        viewer.setFrameMetricsListener(builder.frameMetricsListener);
+        shownAtMillis = -1;
         viewer.setOnDismissListener(this);
         viewer.setBackgroundColor(builder.backgroundColor);
         viewer.setOverlayView(builder.overlayView);
         viewer.setImageMargin(builder.imageMarginPixels);
         viewer.setContainerPadding(builder.containerPaddingPixels);
-        viewer.setUrls(builder.imageViewType, builder.dataSet, builder.startPosition);
+        viewer.setEntryTransition(builder.takeEntryTransition());
+        viewer.setUrls(builder.imageViewType, builder.dataSet,
+                restoredPosition >= 0 ? restoredPosition : builder.startPosition);
+        restoredPosition = -1;
         viewer.setPageChangeListener(new ViewPager.SimpleOnPageChangeListener() {
             @Override
             public void onPageSelected(int position) {
@@ -227,10 +344,29 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
         return viewer;
     }
 
+    /*
+     * Keeps the builder while the viewer is recreated after a configuration change: the data set with
+     * its formatter and cached urls, and the options. The overlay view, listeners and entry transition
+     * are dropped from it in onDestroy() before the old activity goes away.
+     */
+    private static class RetainedBuilder extends ViewModel {
+
+        private Builder builder;
+
+        static RetainedBuilder get(ImageViewer owner) {
+            return new ViewModelProvider(owner, new ViewModelProvider.Factory() {
+                @Override
+                public <M extends ViewModel> M create(@NonNull Class<M> modelClass) {
+                    return modelClass.cast(new RetainedBuilder());
+                }
+            }).get(RetainedBuilder.class);
+        }
+    }
+
     /**
      * Interface used to format custom objects into an image url.
      */
-    public interface Formatter<T> {
+    public interface Formatter<T> extends UrlFormatter<T> {
 
         /**
          * Formats an image url representation of the object.
@@ -238,29 +374,83 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
          * @param t The object that needs to be formatted into url.
          * @return An url of image.
          */
+        @Override
         String format(T t);
     }
 
-    public static class DataSet<T> {
+    /**
+     * Interface used to identify the objects of a gallery whose list changes while it's shown.
+     */
+    public interface IdProvider<T> extends ItemIdProvider<T> {
 
-        private List<T> data;
-        private Formatter<T> formatter;
+        /**
+         * @param t The object that needs an id.
+         * @return An id, unique within the list, which stays the same for the object when the list changes.
+         */
+        @Override
+        long getItemId(T t);
+    }
 
-        DataSet(List<T> data) {
-            this.data = data;
-        }
+    /**
+     * Item of an {@link ImageViewerAdapter#IMAGE_VIEW_TYPE_PLAIN} viewer producing its bitmap on demand,
+     * for sources other than files, encoded bytes or uris. Use it instead of {@code Bitmap} items so only
+     * the bitmaps around the visible pages are held in memory.
+     */
+    public interface BitmapSupplier {
 
-        String format(int position) {
-            return format(data.get(position));
-        }
+        /**
+         * Decodes the bitmap. Called on a background thread.
+         *
+         * @return The bitmap, or {@code null} if it can't be produced.
+         */
+        Bitmap get();
+    }
+
+    /**
+     * Creates the image requests of drawee pages. Called on the UI thread and on background threads
+     * at the same time, so implementations must not share mutable state such as an {@code ImageRequestBuilder}
+     * between calls.
+     */
+    public interface ImageRequestFactory {
+
+        /**
+         * @param url The url of the page image.
+         * @return A new request of the image.
+         */
+        ImageRequest create(String url);
+    }
+
+    /**
+     * {@link Formatter} of images which also have a low resolution variant, e.g. the thumbnail
+     * shown in the gallery the viewer is opened from. The low resolution image is shown while
+     * the full one loads.
+     */
+    public interface LowResFormatter<T> extends Formatter<T> {
 
-        String format(T t) {
-            if (formatter == null) return t.toString();
-            else return formatter.format(t);
+        /**
+         * Formats an url of the low resolution variant of the object's image.
+         *
+         * @param t The object that needs to be formatted into url.
+         * @return An url of the low resolution image, or {@code null} if there is none.
+         */
+        String formatLowRes(T t);
+    }
+
+    public static class DataSet<T> extends BaseDataSet<T> {
+
+        DataSet(List<T> data) {
+            super(data);
         }
 
-        public List<T> getData() {
-            return data;
+        /**
+         * @return the url of the low resolution variant of the item, or {@code null} if there is none
+         */
+        String formatLowRes(int position) {
+            T t = get(position);
+            if (t == null || !(formatter instanceof LowResFormatter)) {
+                return null;
+            }
+            return ((LowResFormatter<T>) formatter).formatLowRes(t);
         }
     }
 
@@ -273,17 +463,31 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
         private DataSet<T> dataSet;
         private @ColorInt int backgroundColor = Color.BLACK;
         private int startPosition;
+        private Rect transitionBounds;
+        private Bitmap transitionBitmap;
+        private ImageRequest transitionRequest;
         private OnImageChangeListener imageChangeListener;
         private OnDismissListener onDismissListener;
         private View overlayView;
         private int imageMarginPixels;
         private int[] containerPaddingPixels = new int[4];
         private ImageRequestBuilder customImageRequestBuilder;
+        private ImageRequestFactory imageRequestFactory;
         private GenericDraweeHierarchyBuilder customHierarchyBuilder;
         private boolean shouldStatusBarHide = true;
         private boolean isZoomingAllowed = true;
         private boolean isSwipeToDismissAllowed = true;
+        private boolean isViewportDecodingEnabled = true;
+        private boolean isTiledDecodingEnabled;
+        private boolean isProgressiveRenderingEnabled;
+        private int bitmapCacheSizeBytes = BitmapCache.getDefaultMaxSize();
         private int imageViewType = IMAGE_VIEW_TYPE_DRAWEE;
+        private int offscreenPageLimit = ImageViewerView.DEFAULT_OFFSCREEN_PAGE_LIMIT;
+        private int prefetchWindow = ImagePrefetcher.DEFAULT_WINDOW;
+        private Priority prefetchPriority = Priority.LOW;
+        private PrefetchPolicy prefetchPolicy;
+        private ImageLoadListener imageLoadListener;
+        private FrameMetricsListener frameMetricsListener;
         private View.OnLongClickListener longClickListener;
         private ImageViewerView.OnTouchUpDownEventListener upDownEventListener;
 
@@ -298,10 +502,26 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
          * Constructor using a context and images urls list for this builder and the {@link ImageViewer} it creates.
          */
         public Builder(Context context, List<T> images) {
-            this.context = context;
+            // only resources are read, so the builder doesn't keep an activity alive
+            this.context = context.getApplicationContext();
             this.dataSet = new DataSet<>(images);
         }
 
+        /**
+         * Constructor using a context and a source of pages of images for this builder and the {@link ImageViewer} it creates.
+         * Only the pages around the current image are loaded and kept in memory.
+         */
+        public Builder(Context context, PageSource<T> source) {
+            this(context, new PagedList<>(source, PagedList.getDefaultLoadExecutor(), new Executor() {
+                private final Handler handler = new Handler(Looper.getMainLooper());
+
+                @Override
+                public void execute(Runnable command) {
+                    handler.post(command);
+                }
+            }));
+        }
+
         /**
          * If you use an non-string collection, you can use custom {@link Formatter} to represent it as url.
          */
@@ -310,6 +530,59 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
             return this;
         }
 
+        /**
+         * Set the number of images loaded at once from the {@link PageSource}. By default is 50.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setPageSize(int pageSize) {
+            if (dataSet.getData() instanceof PagedList) {
+                ((PagedList<T>) dataSet.getData()).setPageSize(pageSize);
+            }
+            return this;
+        }
+
+        /**
+         * Set how many formatted urls are cached, so the {@link Formatter} runs once per image while it's cached.
+         * Use it with expensive formatters, e.g. building signed urls. The cache assumes the list is only
+         * changed through {@link ImageViewer#submitList(List)}. By default is 0, no cache.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setUrlCacheSize(int maxSize) {
+            this.dataSet.setUrlCacheSize(maxSize);
+            return this;
+        }
+
+        /**
+         * Format the urls of the images around the start position into the url cache on {@code executor},
+         * e.g. while the gallery the viewer is opened from is shown. Call it after {@link #setStartPosition(int)}
+         * and {@link #setUrlCacheSize(int)}. The {@link Formatter} is then called from two threads, so it
+         * must be thread safe.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder preformatUrls(Executor executor) {
+            int count = dataSet.getUrlCacheSize();
+            if (count == 0) {
+                throw new IllegalStateException("Url cache is disabled, call setUrlCacheSize() first");
+            }
+            int from = Math.max(0, startPosition - count / 2);
+            dataSet.preformat(executor, from, from + count - 1);
+            return this;
+        }
+
+        /**
+         * Set {@link IdProvider} identifying the images when the list is changed by {@link ImageViewer#submitList(List)}.
+         * By default the images are identified by their url.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setIdProvider(IdProvider<T> idProvider) {
+            this.dataSet.idProvider = idProvider;
+            return this;
+        }
+
         /**
          * Set background color resource for viewer
          *
@@ -340,6 +613,37 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
             return this;
         }
 
+        /**
+         * Animate the image the viewer is opened from into the start image. The thumbnail stays
+         * over the start image until it's loaded. Call it right before showing the viewer.
+         *
+         * @param source    The view showing the thumbnail.
+         * @param thumbnail The bitmap the view shows.
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setEntryTransition(View source, Bitmap thumbnail) {
+            this.transitionBounds = getScreenBounds(source);
+            this.transitionBitmap = thumbnail;
+            this.transitionRequest = null;
+            return this;
+        }
+
+        /**
+         * Animate the image the viewer is opened from into the start image, taking the thumbnail
+         * from Fresco's bitmap cache. Nothing is animated if it's not cached.
+         *
+         * @param source           The view showing the thumbnail.
+         * @param thumbnailRequest The request the view loaded its image with.
+         * @return This Builder object to allow for chaining of calls to set methods
+         * @see #setEntryTransition(View, Bitmap)
+         */
+        public Builder setEntryTransition(View source, ImageRequest thumbnailRequest) {
+            this.transitionBounds = getScreenBounds(source);
+            this.transitionBitmap = null;
+            this.transitionRequest = thumbnailRequest;
+            return this;
+        }
+
         /**
          * Set {@link ImageViewer.OnImageChangeListener} for viewer.
          *
@@ -458,6 +762,53 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
             return this;
         }
 
+        /**
+         * Decode drawee images at the size of the viewer instead of their full resolution.
+         * Zooming in past 1.5x loads a sharper decode of the page. Ignored for requests
+         * which have their own resize options. By default is true.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder allowViewportDecoding(boolean value) {
+            this.isViewportDecodingEnabled = value;
+            return this;
+        }
+
+        /**
+         * Allow or disallow tiled decoding of zoomed images. When allowed, the visible part of a
+         * zoomed image is decoded in tiles at the zoomed resolution from the local file or Fresco's
+         * disk cache, so very large images stay sharp without decoding them whole. By default is false.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder allowTiledDecoding(boolean value) {
+            this.isTiledDecodingEnabled = value;
+            return this;
+        }
+
+        /**
+         * Allow or disallow progressive rendering of drawee images: progressive JPEGs are shown
+         * scan by scan while they download. Pair it with a {@link LowResFormatter} to show the
+         * cached thumbnail first. By default is false.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder allowProgressiveRendering(boolean value) {
+            this.isProgressiveRenderingEnabled = value;
+            return this;
+        }
+
+        /**
+         * Set the maximum size in bytes of the bitmaps loaded for {@link ImageViewerAdapter#IMAGE_VIEW_TYPE_PLAIN}
+         * items which are kept in memory. By default is an eighth of the maximum heap size.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setBitmapCacheSize(int maxSizeBytes) {
+            this.bitmapCacheSizeBytes = maxSizeBytes;
+            return this;
+        }
+
         /**
          * Set {@link ImageViewer.OnDismissListener} for viewer.
          *
@@ -471,6 +822,8 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
         /**
          * Set @{@code ImageRequestBuilder} for drawees. Use it for post-processing, custom resize options etc.
          * Use {@link ImageViewer#createImageRequestBuilder()} to create its new instance.
+         * The builder is used as a template: it's built once when the viewer is shown and copied for every image,
+         * later changes to it are ignored. Ignored if {@link #setImageRequestFactory(ImageRequestFactory)} is set.
          *
          * @return This Builder object to allow for chaining of calls to set methods
          */
@@ -479,6 +832,18 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
             return this;
         }
 
+        /**
+         * Set {@link ImageRequestFactory} creating the image requests of drawees. Unlike
+         * {@link #setCustomImageRequestBuilder(ImageRequestBuilder)} it may depend on the url,
+         * e.g. to pick a postprocessor per image.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setImageRequestFactory(ImageRequestFactory imageRequestFactory) {
+            this.imageRequestFactory = imageRequestFactory;
+            return this;
+        }
+
         /**
          * Set {@link GenericDraweeHierarchyBuilder} for drawees inside viewer.
          * Use it for drawee customizing (e.g. failure image, placeholder, progressbar etc.)
@@ -491,6 +856,50 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
             return this;
         }
 
+        /**
+         * Set how many pages on each side of the current one stay instantiated and decoded.
+         * While the system is low on memory only one is kept. By default is 1.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setOffscreenPageLimit(int offscreenPageLimit) {
+            this.offscreenPageLimit = offscreenPageLimit;
+            return this;
+        }
+
+        /**
+         * Set the widest prefetch window used by the default {@link AdaptivePrefetchPolicy}:
+         * how many images in the direction of a fast fling are prefetched into Fresco's caches.
+         * Pass 0 to disable prefetching. By default is 4.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setPrefetchWindow(int prefetchWindow) {
+            this.prefetchWindow = prefetchWindow;
+            return this;
+        }
+
+        /**
+         * Set {@link PrefetchPolicy} deciding how many images around the current one are prefetched.
+         * Overrides {@link #setPrefetchWindow(int)}.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setPrefetchPolicy(PrefetchPolicy prefetchPolicy) {
+            this.prefetchPolicy = prefetchPolicy;
+            return this;
+        }
+
+        /**
+         * Set {@link Priority} of the prefetch requests. By default is {@link Priority#LOW}.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setPrefetchPriority(Priority prefetchPriority) {
+            this.prefetchPriority = prefetchPriority;
+            return this;
+        }
+
         /**
          *
          * @param imageViewType
@@ -516,6 +925,68 @@ public class ImageViewer extends DialogFragment implements OnDismissListener, Di
             return this;
         }
 
+        /**
+         * Drops what usually references the activity the builder was set up in.
+         */
+        void dropActivityReferences() {
+            overlayView = null;
+            imageChangeListener = null;
+            onDismissListener = null;
+            longClickListener = null;
+            upDownEventListener = null;
+            imageLoadListener = null;
+            frameMetricsListener = null;
+            transitionBounds = null;
+            transitionBitmap = null;
+            transitionRequest = null;
+        }
+
+        /**
+         * @return the entry transition, or {@code null} if there is none; it's played once
+         */
+        EntryTransition takeEntryTransition() {
+            EntryTransition transition = null;
+            if (transitionBounds != null && transitionBitmap != null && !transitionBitmap.isRecycled()) {
+                transition = EntryTransition.fromBitmap(transitionBounds, transitionBitmap);
+            } else if (transitionBounds != null && transitionRequest != null) {
+                transition = EntryTransition.fromBitmapCache(transitionBounds, transitionRequest);
+            }
+            transitionBounds = null;
+            transitionBitmap = null;
+            transitionRequest = null;
+            return transition;
+        }
+
+        private static Rect getScreenBounds(View view) {
+            int[] location = new int[2];
+            view.getLocationOnScreen(location);
+            return new Rect(location[0], location[1],
+                    location[0] + view.getWidth(), location[1] + view.getHeight());
+        }
+
+        /**
+         * Set {@link ImageLoadListener} receiving the load timeline of every page and the time from
+         * {@link ImageViewer#show} to the first image, e.g. to track loading regressions.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setImageLoadListener(ImageLoadListener imageLoadListener) {
+            this.imageLoadListener = imageLoadListener;
+            return this;
+        }
+
+        /**
+         * Set {@link FrameMetricsListener} receiving frame duration histograms and dropped frame counts of
+         * pager drags, zooms and swipes to dismiss. Frames are only observed while a gesture is in progress,
+         * so it's cheap enough to be left on in production.
+         *
+         * @return This Builder object to allow for chaining of calls to set methods
+         */
+        public Builder setFrameMetricsListener(FrameMetricsListener frameMetricsListener) {
+            this.frameMetricsListener = frameMetricsListener;
+            return this;
+        }
+
         public ImageViewer build() {
             return new ImageViewer(this);
         }
@@ -2,24 +2,35 @@ package com.stfalcon.frescoimageviewer;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Matrix;
 import android.graphics.drawable.Animatable;
 import android.net.Uri;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 
 import com.facebook.drawee.backends.pipeline.Fresco;
 import com.facebook.drawee.backends.pipeline.PipelineDraweeControllerBuilder;
+import com.facebook.drawee.backends.pipeline.info.ImageOrigin;
+import com.facebook.drawee.backends.pipeline.info.ImageOriginListener;
 import com.facebook.drawee.controller.BaseControllerListener;
 import com.facebook.drawee.drawable.ScalingUtils;
+import com.facebook.drawee.generic.GenericDraweeHierarchy;
 import com.facebook.drawee.generic.GenericDraweeHierarchyBuilder;
+import com.facebook.imagepipeline.common.ResizeOptions;
 import com.facebook.imagepipeline.image.ImageInfo;
+import com.facebook.imagepipeline.request.ImageRequest;
 import com.facebook.imagepipeline.request.ImageRequestBuilder;
+import com.stfalcon.frescoimageviewer.adapter.PageState;
 import com.stfalcon.frescoimageviewer.adapter.RecyclingPagerAdapter;
 import com.stfalcon.frescoimageviewer.adapter.ViewHolder;
 import com.stfalcon.frescoimageviewer.drawee.ZoomableDraweeView;
 
-import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Future;
 
 import me.relex.photodraweeview.OnScaleChangeListener;
 
@@ -29,30 +40,63 @@ import me.relex.photodraweeview.OnScaleChangeListener;
 public class ImageViewerAdapter
         extends RecyclingPagerAdapter<ImageViewerAdapter.ImageViewHolder> {
 
+    /**
+     * Shows items with an {@code ImageView}. Items may be {@code Bitmap}s or, loaded in background,
+     * {@code File}s, {@code byte[]}s of encoded images, {@code Uri}s and {@link ImageViewer.BitmapSupplier}s.
+     */
     public static final int IMAGE_VIEW_TYPE_PLAIN = 0;
     public static final int IMAGE_VIEW_TYPE_DRAWEE = 1;
 
+    // zoom level after which a viewport sized image is replaced by a sharper decode
+    private static final float HIGH_RESOLUTION_SCALE = 1.5f;
+    private static final int MAX_DECODE_SIZE = 4096;
+    // how far a kept page's item is looked for on data set changes
+    private static final int MAX_ITEM_MOVE = 16;
+
+    // the application context, the pages are created with the context of the pager
     private Context context;
     private ImageViewer.DataSet<?> dataSet;
-    private HashSet<ImageViewHolder> holders;
-    private ImageRequestBuilder imageRequestBuilder;
+    private SparseArray<ImageViewHolder> holders;
+    private ImageViewer.ImageRequestFactory imageRequestFactory;
     private GenericDraweeHierarchyBuilder hierarchyBuilder;
     private boolean isZoomingAllowed;
+    private boolean isViewportDecodingEnabled = true;
+    private boolean isTiledDecodingEnabled;
+    private boolean isProgressiveRenderingEnabled;
+    private int viewportWidth;
+    private int viewportHeight;
+    private PlainImageLoader plainImageLoader;
+    private OnImageSetListener imageSetListener;
+    private ImageLoadListener loadListener;
+    // uptime of ImageViewer.show(), or -1 once the first image was reported
+    private long shownAtMillis = -1;
 
     private int imageViewType;
 
     public ImageViewerAdapter(Context context, ImageViewer.DataSet<?> dataSet,
-                              ImageRequestBuilder imageRequestBuilder,
+                              ImageViewer.ImageRequestFactory imageRequestFactory,
                               GenericDraweeHierarchyBuilder hierarchyBuilder,
                               boolean isZoomingAllowed) {
-        this.context = context;
+        this.context = context.getApplicationContext();
         this.dataSet = dataSet;
-        this.holders = new HashSet<>();
-        this.imageRequestBuilder = imageRequestBuilder;
+        this.holders = new SparseArray<>();
+        this.imageRequestFactory = imageRequestFactory;
         this.hierarchyBuilder = hierarchyBuilder;
         this.isZoomingAllowed = isZoomingAllowed;
 
         this.imageViewType = IMAGE_VIEW_TYPE_DRAWEE;
+
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        this.viewportWidth = metrics.widthPixels;
+        this.viewportHeight = metrics.heightPixels;
+    }
+
+    interface OnImageSetListener {
+
+        /**
+         * Called when the image of a page was shown or failed to load.
+         */
+        void onImageSet(int position);
     }
 
     public int getImageViewType() {
@@ -63,51 +107,187 @@ public class ImageViewerAdapter
         this.imageViewType = imageViewType;
     }
 
+    /**
+     * Decodes images at the size of the viewport unless the requests of the custom
+     * {@link ImageViewer.ImageRequestFactory} have their own resize options. Zooming in switches the page to a sharper decode.
+     */
+    public void setViewportDecodingEnabled(boolean enabled) {
+        this.isViewportDecodingEnabled = enabled;
+    }
+
+    /**
+     * Draws sharp tiles decoded from the encoded image over zoomed drawees.
+     */
+    public void setTiledDecodingEnabled(boolean enabled) {
+        this.isTiledDecodingEnabled = enabled;
+    }
+
+    /**
+     * Renders progressive JPEGs scan by scan while they download.
+     */
+    public void setProgressiveRenderingEnabled(boolean enabled) {
+        this.isProgressiveRenderingEnabled = enabled;
+    }
+
+    /**
+     * Sets the maximum size in bytes of the bitmaps loaded for {@link #IMAGE_VIEW_TYPE_PLAIN}
+     * items which are kept in memory.
+     */
+    public void setBitmapCacheSize(int maxSizeBytes) {
+        this.plainImageLoader = new PlainImageLoader(context, new BitmapCache(maxSizeBytes));
+    }
+
+    void setOnImageSetListener(OnImageSetListener listener) {
+        this.imageSetListener = listener;
+    }
+
+    /**
+     * @param shownAtMillis uptime the viewer was shown at, the time to the first image is measured from
+     */
+    void setImageLoadListener(ImageLoadListener listener, long shownAtMillis) {
+        this.loadListener = listener;
+        this.shownAtMillis = listener != null ? shownAtMillis : -1;
+    }
+
+    void setViewportSize(int width, int height) {
+        if (width > 0 && height > 0) {
+            this.viewportWidth = width;
+            this.viewportHeight = height;
+        }
+    }
+
     @Override
     public ImageViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         ImageViewHolder holder = null;
         if (imageViewType == IMAGE_VIEW_TYPE_DRAWEE) {
-            ZoomableDraweeView drawee = new ZoomableDraweeView(context);
+            ZoomableDraweeView drawee = new ZoomableDraweeView(parent.getContext());
             drawee.setEnabled(isZoomingAllowed);
+            drawee.setTiledDecodingEnabled(isTiledDecodingEnabled);
+            if (hierarchyBuilder != null) {
+                GenericDraweeHierarchy hierarchy = hierarchyBuilder.build();
+                hierarchy.setActualImageScaleType(ScalingUtils.ScaleType.FIT_CENTER);
+                drawee.setHierarchy(hierarchy);
+            }
             holder = new DraweeViewHolder(drawee);
         }
         else {
-            ImageView imageView = new ImageView(context);
+            ImageView imageView = new ImageView(parent.getContext());
             imageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
             holder = new PlainImageViewHolder(imageView);
         }
 
-        holders.add(holder);
-
         return holder;
     }
 
     @Override
     public void onBindViewHolder(ImageViewHolder holder, int position) {
+        unregister(holder);
         holder.bind(position);
+        holders.put(position, holder);
     }
 
     @Override
-    public int getItemCount() {
-        return dataSet.getData().size();
+    public void onViewRecycled(ImageViewHolder holder) {
+        unregister(holder);
+        // parked holders would keep their images until rebound to another page
+        holder.release();
     }
 
+    /**
+     * Drops the images of the attached pages other than {@code visiblePosition} and the plain bitmap cache.
+     * The pages load their images again on {@link #rebindReleased()}.
+     */
+    void releaseOffscreen(int visiblePosition) {
+        for (int i = 0, n = holders.size(); i < n; i++) {
+            if (holders.keyAt(i) != visiblePosition) {
+                holders.valueAt(i).release();
+            }
+        }
+        if (plainImageLoader != null) {
+            plainImageLoader.trimMemory();
+        }
+    }
 
-    boolean isScaled(int index) {
-        for (ImageViewHolder holder : holders) {
-            if (holder.position == index) {
-                return holder.isScaled;
+    void rebindIfReleased(int position) {
+        ImageViewHolder holder = holders.get(position);
+        if (holder != null && holder.isReleased()) {
+            holder.bind(position);
+        }
+    }
+
+    void rebindReleased() {
+        for (int i = 0, n = holders.size(); i < n; i++) {
+            ImageViewHolder holder = holders.valueAt(i);
+            if (holder.isReleased()) {
+                holder.bind(holders.keyAt(i));
             }
         }
-        return false;
+    }
+
+    @Override
+    public int getItemCount() {
+        return dataSet.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return dataSet.getItemId(position);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    /**
+     * Ids are url hashes unless there is an {@link ImageViewer.IdProvider}, so only the items around the page
+     * are resolved instead of formatting the whole list. Items which moved farther rebuild their page.
+     */
+    @Override
+    public int getPositionForItemId(long id, int previousPosition) {
+        return findPositionForItemId(id, previousPosition, MAX_ITEM_MOVE);
+    }
+
+    /**
+     * Replaces the items, call {@link #notifyDataSetChanged()} afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    void submitList(List<?> items) {
+        ((ImageViewer.DataSet<Object>) dataSet).setData((List<Object>) items);
+    }
+
+    void loadAround(int position) {
+        dataSet.loadAround(position);
+    }
+
+    @Override
+    protected void onNotifyItemChanged(ViewHolder viewHolder) {
+        // cheap for unchanged items, the holders keep what they already show
+        onBindViewHolder((ImageViewHolder) viewHolder, viewHolder.getAdapterPosition());
+    }
+
+    boolean isScaled(int index) {
+        ImageViewHolder holder = holders.get(index);
+        return holder != null && holder.isScaled;
     }
 
     void resetScale(int index) {
-        for (ImageViewHolder holder : holders) {
-            if (holder.position == index) {
-                holder.resetScale();
-                break;
-            }
+        ImageViewHolder holder = holders.get(index);
+        if (holder != null) {
+            holder.resetScale();
+        }
+    }
+
+    private PlainImageLoader getPlainImageLoader() {
+        if (plainImageLoader == null) {
+            plainImageLoader = new PlainImageLoader(context, new BitmapCache(BitmapCache.getDefaultMaxSize()));
+        }
+        return plainImageLoader;
+    }
+
+    private void unregister(ImageViewHolder holder) {
+        if (holder.position >= 0 && holders.get(holder.position) == holder) {
+            holders.remove(holder.position);
         }
     }
 
@@ -115,18 +295,146 @@ public class ImageViewerAdapter
         return dataSet.format(index);
     }
 
-    private BaseControllerListener<ImageInfo>
-    getDraweeControllerListener(final ZoomableDraweeView drawee) {
-        return new BaseControllerListener<ImageInfo>() {
-            @Override
-            public void onFinalImageSet(String id, ImageInfo imageInfo, Animatable animatable) {
-                super.onFinalImageSet(id, imageInfo, animatable);
-                if (imageInfo == null) {
-                    return;
-                }
-                drawee.update(imageInfo.getWidth(), imageInfo.getHeight());
+    /**
+     * Safe to call from any thread, nothing shared is mutated.
+     */
+    ImageRequest buildImageRequest(String url) {
+        return buildImageRequest(createImageRequest(url), 1.0f);
+    }
+
+    /**
+     * @param scale size of the decoded image relative to the viewport, when viewport decoding applies
+     */
+    ImageRequest buildImageRequest(ImageRequest request, float scale) {
+        if (!isViewportDecodingApplied(request)) {
+            return request;
+        }
+        return ImageRequestBuilder.fromRequest(request)
+                .setResizeOptions(getViewportResizeOptions(scale))
+                .build();
+    }
+
+    private ImageRequest createImageRequest(String url) {
+        ImageRequest request = imageRequestFactory != null
+                ? imageRequestFactory.create(url)
+                : ImageRequest.fromUri(url);
+        if (!isProgressiveRenderingEnabled || request == null || request.getProgressiveRenderingEnabled()) {
+            return request;
+        }
+        return ImageRequestBuilder.fromRequest(request)
+                .setProgressiveRenderingEnabled(true)
+                .build();
+    }
+
+    /**
+     * @return the request of the low resolution variant of the item, which is usually
+     * in the memory or disk cache already
+     */
+    private ImageRequest createLowResImageRequest(int position) {
+        String url = dataSet.formatLowRes(position);
+        return url != null ? ImageRequest.fromUri(url) : null;
+    }
+
+    private boolean isViewportDecodingApplied(ImageRequest request) {
+        return isViewportDecodingEnabled && request != null && request.getResizeOptions() == null;
+    }
+
+    private ResizeOptions getViewportResizeOptions(float scale) {
+        int width = Math.round(viewportWidth * scale);
+        int height = Math.round(viewportHeight * scale);
+        float maxBitmapSize = Math.min(MAX_DECODE_SIZE, Math.max(width, height));
+        return new ResizeOptions(width, height, maxBitmapSize);
+    }
+
+    private void notifyImageBound(ImageViewHolder holder, String url) {
+        if (loadListener != null) {
+            loadListener.onImageBound(holder.position, url, SystemClock.uptimeMillis());
+        }
+    }
+
+    private void notifyFinalImageSet(ImageViewHolder holder, ImageSource source) {
+        if (loadListener != null) {
+            long now = SystemClock.uptimeMillis();
+            loadListener.onFinalImageSet(holder.position, source, now);
+            if (shownAtMillis >= 0) {
+                loadListener.onFirstImageSet(now - shownAtMillis);
+                shownAtMillis = -1;
+            }
+        }
+        notifyImageSet(holder);
+    }
+
+    private void notifyImageFailed(ImageViewHolder holder, Throwable throwable) {
+        if (loadListener != null) {
+            loadListener.onImageFailed(holder.position, throwable, SystemClock.uptimeMillis());
+        }
+        notifyImageSet(holder);
+    }
+
+    private void notifyImageSet(ImageViewHolder holder) {
+        if (imageSetListener != null && holder.position >= 0) {
+            imageSetListener.onImageSet(holder.position);
+        }
+    }
+
+    /*
+     * Listener of a drawee controller. The origin is reported by the pipeline before the image is set,
+     * possibly on a background thread.
+     */
+    private class DraweeControllerListener extends BaseControllerListener<ImageInfo>
+            implements ImageOriginListener {
+
+        private final DraweeViewHolder holder;
+        private final boolean keepZoom;
+        private volatile int imageOrigin = ImageOrigin.UNKNOWN;
+
+        DraweeControllerListener(DraweeViewHolder holder, boolean keepZoom) {
+            this.holder = holder;
+            this.keepZoom = keepZoom;
+        }
+
+        @Override
+        public void onSubmit(String id, Object callerContext) {
+            super.onSubmit(id, callerContext);
+            if (loadListener != null && !keepZoom) {
+                loadListener.onImageSubmitted(holder.position, SystemClock.uptimeMillis());
+            }
+        }
+
+        @Override
+        public void onIntermediateImageSet(String id, ImageInfo imageInfo) {
+            super.onIntermediateImageSet(id, imageInfo);
+            if (loadListener != null && !keepZoom) {
+                loadListener.onIntermediateImageSet(holder.position, SystemClock.uptimeMillis());
             }
-        };
+        }
+
+        @Override
+        public void onFinalImageSet(String id, ImageInfo imageInfo, Animatable animatable) {
+            super.onFinalImageSet(id, imageInfo, animatable);
+            // a sharper decode of the same image keeps the aspect ratio, updating would reset the zoom
+            if (imageInfo == null || keepZoom) {
+                return;
+            }
+            holder.drawee.update(imageInfo.getWidth(), imageInfo.getHeight());
+            holder.onImageSet();
+            notifyFinalImageSet(holder, ImageSource.fromImageOrigin(imageOrigin));
+        }
+
+        @Override
+        public void onFailure(String id, Throwable throwable) {
+            super.onFailure(id, throwable);
+            if (keepZoom) {
+                return;
+            }
+            notifyImageFailed(holder, throwable);
+        }
+
+        @Override
+        public void onImageLoaded(String controllerId, int imageOrigin, boolean successful,
+                                  String ultimateProducerName) {
+            this.imageOrigin = imageOrigin;
+        }
     }
 
     abstract class ImageViewHolder extends ViewHolder implements OnScaleChangeListener {
@@ -146,11 +454,21 @@ public class ImageViewerAdapter
         }
 
         abstract void resetScale();
+
+        /**
+         * Drops the image of the page, it's loaded again by the next {@link #bind(int)}.
+         */
+        abstract void release();
+
+        abstract boolean isReleased();
     }
 
     public class PlainImageViewHolder extends ImageViewHolder {
 
         private ImageView imageView;
+        private Object boundItem;
+        private Object pendingItem;
+        private Future<?> pendingLoad;
 
         PlainImageViewHolder(View itemView) {
             super(itemView);
@@ -171,34 +489,122 @@ public class ImageViewerAdapter
         void bind(int position) {
             super.bind(position);
 
-            Bitmap bitmap = (Bitmap) dataSet.getData().get(position);
-            imageView.setImageBitmap(bitmap);
+            Object item = dataSet.get(position);
+            if (item == boundItem && item != null) {
+                return;
+            }
+            cancelPendingLoad();
+            boundItem = item;
+            if (item == null) {
+                imageView.setImageDrawable(null);
+                return;
+            }
+            notifyImageBound(this, null);
+            if (item instanceof Bitmap) {
+                imageView.setImageBitmap((Bitmap) item);
+                notifyFinalImageSet(this, ImageSource.MEMORY);
+            } else if (PlainImageLoader.isSupported(item)) {
+                PlainImageLoader loader = getPlainImageLoader();
+                Bitmap bitmap = loader.getCached(item);
+                if (bitmap == null) {
+                    imageView.setImageDrawable(null);
+                    load(loader, item);
+                } else {
+                    imageView.setImageBitmap(bitmap);
+                    notifyFinalImageSet(this, ImageSource.MEMORY);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported item of a plain image viewer: " + item);
+            }
+        }
+
+        /**
+         * Drops the bitmap of a page which left the pager, the bitmap cache keeps it if there is room.
+         */
+        @Override
+        void release() {
+            cancelPendingLoad();
+            boundItem = null;
+            imageView.setImageDrawable(null);
+        }
+
+        @Override
+        boolean isReleased() {
+            return boundItem == null;
+        }
+
+        private void load(PlainImageLoader loader, final Object item) {
+            pendingItem = item;
+            pendingLoad = loader.load(item, viewportWidth, viewportHeight, new PlainImageLoader.Callback() {
+                @Override
+                public void onBitmapLoaded(Bitmap bitmap) {
+                    // the holder may have been recycled or rebound to another item meanwhile
+                    if (pendingItem == item) {
+                        cancelPendingLoad();
+                        imageView.setImageBitmap(bitmap);
+                        notifyFinalImageSet(PlainImageViewHolder.this, ImageSource.LOCAL);
+                    }
+                }
+
+                @Override
+                public void onBitmapFailed(Throwable throwable) {
+                    if (pendingItem == item) {
+                        cancelPendingLoad();
+                        notifyImageFailed(PlainImageViewHolder.this, throwable);
+                    }
+                }
+            });
+        }
+
+        private void cancelPendingLoad() {
+            if (pendingLoad != null) {
+                pendingLoad.cancel(true);
+                pendingLoad = null;
+            }
+            pendingItem = null;
         }
     }
 
     public class DraweeViewHolder extends ImageViewHolder {
 
         private ZoomableDraweeView drawee;
+        private String url;
+        // request of the factory, before the viewport size is applied
+        private ImageRequest sourceRequest;
+        private ImageRequest request;
+        private boolean isHighResolution;
+        private boolean isImageSet;
+        // saved zoom of the page, applied once its image is set
+        private Matrix pendingZoom;
 
         DraweeViewHolder(View itemView) {
             super(itemView);
 
             drawee = (ZoomableDraweeView) itemView;
+            drawee.setOnScaleChangeListener(this);
         }
 
         @Override
         void bind(int position) {
             super.bind(position);
 
-            tryToSetHierarchy();
-            setController(dataSet.format(position));
-
-            drawee.setOnScaleChangeListener(this);
+            String url = dataSet.format(position);
+            if (url == null) {
+                // the hierarchy shows its placeholder while the page of the item is loading
+                release();
+            // rebinding the same image, e.g. after notifyDataSetChanged, keeps the loaded controller
+            } else if (!url.equals(this.url) || drawee.getController() == null) {
+                setController(url, createLowResImageRequest(position));
+            }
         }
 
         @Override
         public void onScaleChange(float scaleFactor, float focusX, float focusY) {
             isScaled = drawee.getScale() > 1.0f;
+            if (!isHighResolution && drawee.getScale() >= HIGH_RESOLUTION_SCALE
+                    && isViewportDecodingApplied(sourceRequest)) {
+                setHighResolutionController();
+            }
         }
 
         @Override
@@ -206,22 +612,93 @@ public class ImageViewerAdapter
             drawee.setScale(1.0f, true);
         }
 
-        private void tryToSetHierarchy() {
-            if (hierarchyBuilder != null) {
-                hierarchyBuilder.setActualImageScaleType(ScalingUtils.ScaleType.FIT_CENTER);
-                drawee.setHierarchy(hierarchyBuilder.build());
+        @Override
+        protected boolean onSaveInstanceState(PageState state) {
+            if (!isImageSet || !isScaled) {
+                return false;
             }
+            // the attacher only scales uniformly and translates
+            float[] values = new float[9];
+            drawee.getZoomMatrix().getValues(values);
+            state.set(values[Matrix.MSCALE_X], values[Matrix.MTRANS_X], values[Matrix.MTRANS_Y]);
+            return true;
         }
 
-        private void setController(String url) {
+        @Override
+        protected void onRestoreInstanceState(PageState state) {
+            pendingZoom = new Matrix();
+            pendingZoom.setScale(state.getScale(), state.getScale());
+            pendingZoom.postTranslate(state.getTranslationX(), state.getTranslationY());
+            // images from the memory cache are set while binding
+            if (isImageSet) {
+                onImageSet();
+            }
+        }
+
+        void onImageSet() {
+            isImageSet = true;
+            if (pendingZoom != null) {
+                drawee.setZoomMatrix(pendingZoom);
+                pendingZoom = null;
+                onScaleChange(1.0f, 0.0f, 0.0f);
+            }
+        }
+
+        /**
+         * Drops the controller, so the decoded image isn't kept alive by a detached or parked page.
+         */
+        @Override
+        void release() {
+            url = null;
+            sourceRequest = null;
+            request = null;
+            isHighResolution = false;
+            isImageSet = false;
+            pendingZoom = null;
+            drawee.setTileSource(null);
+            drawee.setController(null);
+            drawee.getHierarchy().reset();
+        }
+
+        @Override
+        boolean isReleased() {
+            return url == null;
+        }
+
+        private void setController(String url, ImageRequest lowResRequest) {
+            this.url = url;
+            this.sourceRequest = createImageRequest(url);
+            this.request = buildImageRequest(sourceRequest, 1.0f);
+            this.isHighResolution = false;
+            this.isImageSet = false;
+            this.pendingZoom = null;
+            drawee.setTileSource(Uri.parse(url));
+
             PipelineDraweeControllerBuilder controllerBuilder = Fresco.newDraweeControllerBuilder();
-            controllerBuilder.setUri(url);
+            controllerBuilder.setLowResImageRequest(lowResRequest);
+            controllerBuilder.setImageRequest(request);
             controllerBuilder.setOldController(drawee.getController());
-            controllerBuilder.setControllerListener(getDraweeControllerListener(drawee));
-            if (imageRequestBuilder != null) {
-                imageRequestBuilder.setSource(Uri.parse(url));
-                controllerBuilder.setImageRequest(imageRequestBuilder.build());
+            DraweeControllerListener listener = new DraweeControllerListener(this, false);
+            controllerBuilder.setControllerListener(listener);
+            if (loadListener != null) {
+                controllerBuilder.setImageOriginListener(listener);
             }
+            notifyImageBound(this, url);
+            drawee.setController(controllerBuilder.build());
+        }
+
+        /**
+         * Replaces the viewport sized image with one decoded for the maximum zoom,
+         * showing the current one until the sharper image is ready.
+         */
+        private void setHighResolutionController() {
+            isHighResolution = true;
+
+            PipelineDraweeControllerBuilder controllerBuilder = Fresco.newDraweeControllerBuilder();
+            controllerBuilder.setLowResImageRequest(request);
+            controllerBuilder.setImageRequest(buildImageRequest(sourceRequest, drawee.getMaximumScale()));
+            controllerBuilder.setOldController(drawee.getController());
+            controllerBuilder.setControllerListener(new DraweeControllerListener(this, true));
             drawee.setController(controllerBuilder.build());
         }
     }
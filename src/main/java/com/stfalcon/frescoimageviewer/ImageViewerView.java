@@ -16,30 +16,48 @@
 
 package com.stfalcon.frescoimageviewer;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import androidx.core.view.GestureDetectorCompat;
 import androidx.viewpager.widget.ViewPager;
 
 import android.util.AttributeSet;
+import android.util.Log;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
 import android.widget.RelativeLayout;
 
 import com.facebook.drawee.generic.GenericDraweeHierarchyBuilder;
+import com.facebook.imagepipeline.common.Priority;
 import com.facebook.imagepipeline.request.ImageRequestBuilder;
 
+import java.util.List;
+
 /*
  * Created by Alexander Krol (troy379) on 29.08.16.
  */
 public class ImageViewerView extends RelativeLayout
         implements OnDismissListener, SwipeToDismissListener.OnViewMoveListener {
 
+    private static final String TAG = ImageViewerView.class.getSimpleName();
+
+    static final int DEFAULT_OFFSCREEN_PAGE_LIMIT = 1;
+    // there is no callback when the pressure is gone, so the viewer restores itself after a quiet period
+    private static final long MEMORY_PRESSURE_RESTORE_DELAY_MILLIS = 30000;
+
     private View backgroundView;
     private MultiTouchViewPager pager;
     private ImageViewerAdapter adapter;
+    private ImageViewer.DataSet<?> dataSet;
+    private ImagePrefetcher prefetcher;
+    private EntryTransition pendingEntryTransition;
+    private EntryTransition entryTransition;
     private SwipeDirectionDetector directionDetector;
     private ScaleGestureDetector scaleDetector;
     private ViewPager.OnPageChangeListener pageChangeListener;
@@ -49,9 +67,10 @@ public class ImageViewerView extends RelativeLayout
     private SwipeToDismissListener swipeDismissListener;
     private View overlayView;
 
-    private SwipeDirectionDetector.Direction direction;
+    private SwipeDirection direction;
 
     private ImageRequestBuilder customImageRequestBuilder;
+    private ImageViewer.ImageRequestFactory imageRequestFactory;
     private GenericDraweeHierarchyBuilder customDraweeHierarchyBuilder;
 
     private boolean wasScaled;
@@ -60,6 +79,44 @@ public class ImageViewerView extends RelativeLayout
 
     private boolean isZoomingAllowed = true;
     private boolean isSwipeToDismissAllowed = true;
+    private boolean isViewportDecodingEnabled = true;
+    private boolean isTiledDecodingEnabled;
+    private boolean isProgressiveRenderingEnabled;
+    private int bitmapCacheSizeBytes = BitmapCache.getDefaultMaxSize();
+
+    private int prefetchWindow = ImagePrefetcher.DEFAULT_WINDOW;
+    private Priority prefetchPriority = Priority.LOW;
+    private PrefetchPolicy prefetchPolicy;
+    private ImageLoadListener imageLoadListener;
+    private FrameMetricsCollector frameMetricsCollector;
+    private long shownAtMillis = -1;
+
+    private int offscreenPageLimit = DEFAULT_OFFSCREEN_PAGE_LIMIT;
+    private boolean isUnderMemoryPressure;
+    private final Runnable restoreRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onMemoryPressureCleared();
+        }
+    };
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            // UI_HIDDEN and the background levels only mean the viewer isn't visible
+            if (level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+                onMemoryPressure();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            onMemoryPressure();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
 
     private OnTouchUpDownEventListener upDownEventListener;
 
@@ -85,21 +142,118 @@ public class ImageViewerView extends RelativeLayout
 
     public void setUrls(int imageViewType, ImageViewer.DataSet<?> dataSet, int startPosition) {
         adapter = new ImageViewerAdapter(
-                getContext(), dataSet, customImageRequestBuilder, customDraweeHierarchyBuilder, isZoomingAllowed);
+                getContext(), dataSet, getImageRequestFactory(), customDraweeHierarchyBuilder, isZoomingAllowed);
         adapter.setImageViewType(imageViewType);
+        adapter.setViewportDecodingEnabled(isViewportDecodingEnabled);
+        adapter.setTiledDecodingEnabled(isTiledDecodingEnabled);
+        adapter.setProgressiveRenderingEnabled(isProgressiveRenderingEnabled);
+        adapter.setBitmapCacheSize(bitmapCacheSizeBytes);
+        adapter.setImageLoadListener(imageLoadListener, shownAtMillis);
+        adapter.setViewportSize(getViewportWidth(), getViewportHeight());
+
+        if (prefetcher != null) {
+            prefetcher.cancelAll();
+            prefetcher = null;
+        }
+        if (imageViewType == ImageViewerAdapter.IMAGE_VIEW_TYPE_DRAWEE) {
+            prefetcher = new ImagePrefetcher(adapter, prefetchPolicy != null
+                    ? prefetchPolicy : new AdaptivePrefetchPolicy(prefetchWindow));
+            prefetcher.setPriority(prefetchPriority);
+        }
+
+        this.dataSet = dataSet;
+        dataSet.setPageListener(new PagedList.Listener() {
+            @Override
+            public void onPageLoaded(int fromPosition, int count) {
+                onItemsChanged();
+            }
+
+            @Override
+            public void onPageFailed(int fromPosition, int count, Exception error) {
+                Log.w(TAG, "Failed to load images " + fromPosition + ".." + (fromPosition + count - 1), error);
+            }
+        });
 
+        pager.setOffscreenPageLimit(isUnderMemoryPressure ? DEFAULT_OFFSCREEN_PAGE_LIMIT : offscreenPageLimit);
         pager.setAdapter(adapter);
         setStartPosition(startPosition);
+        adapter.loadAround(pager.getCurrentItem());
+        if (prefetcher != null) {
+            prefetcher.onPageSelected(pager.getCurrentItem());
+        }
+        if (pendingEntryTransition != null) {
+            startEntryTransition(imageViewType == ImageViewerAdapter.IMAGE_VIEW_TYPE_DRAWEE);
+        }
+    }
+
+    /**
+     * Sets the thumbnail animated into the start image when the images are set.
+     */
+    void setEntryTransition(EntryTransition entryTransition) {
+        this.pendingEntryTransition = entryTransition;
+    }
+
+    private void startEntryTransition(final boolean isWaitingForImage) {
+        final EntryTransition transition = pendingEntryTransition;
+        pendingEntryTransition = null;
+        entryTransition = transition;
+        transition.setListener(new EntryTransition.Listener() {
+            @Override
+            public void onTransitionEnd() {
+                // the transition may end before its first draw, when it doesn't know the pager yet
+                pager.setAlpha(1.0f);
+                adapter.setOnImageSetListener(null);
+                entryTransition = null;
+            }
+        });
+        adapter.setOnImageSetListener(new ImageViewerAdapter.OnImageSetListener() {
+            @Override
+            public void onImageSet(int position) {
+                if (position == pager.getCurrentItem()) {
+                    transition.onImageReady();
+                }
+            }
+        });
+        // hidden until the thumbnail covers it, so the pager doesn't flash for a frame
+        pager.setAlpha(0.0f);
+        getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                getViewTreeObserver().removeOnPreDrawListener(this);
+                if (entryTransition == transition) {
+                    transition.start(ImageViewerView.this, pager, backgroundView, isWaitingForImage);
+                }
+                return true;
+            }
+        });
+    }
+
+    private void finishEntryTransition() {
+        if (entryTransition != null) {
+            entryTransition.finish();
+        }
     }
 
     public void setCustomImageRequestBuilder(ImageRequestBuilder customImageRequestBuilder) {
         this.customImageRequestBuilder = customImageRequestBuilder;
     }
 
+    public void setImageRequestFactory(ImageViewer.ImageRequestFactory imageRequestFactory) {
+        this.imageRequestFactory = imageRequestFactory;
+    }
+
     public void setCustomDraweeHierarchyBuilder(GenericDraweeHierarchyBuilder customDraweeHierarchyBuilder) {
         this.customDraweeHierarchyBuilder = customDraweeHierarchyBuilder;
     }
 
+    private ImageViewer.ImageRequestFactory getImageRequestFactory() {
+        if (imageRequestFactory != null) {
+            return imageRequestFactory;
+        }
+        return customImageRequestBuilder != null
+                ? new TemplateImageRequestFactory(customImageRequestBuilder) : null;
+    }
+
     @Override
     public void setBackgroundColor(int color) {
         findViewById(R.id.backgroundView)
@@ -121,6 +275,120 @@ public class ImageViewerView extends RelativeLayout
         this.isSwipeToDismissAllowed = allowSwipeToDismiss;
     }
 
+    public void setViewportDecodingEnabled(boolean enabled) {
+        this.isViewportDecodingEnabled = enabled;
+    }
+
+    public void setTiledDecodingEnabled(boolean enabled) {
+        this.isTiledDecodingEnabled = enabled;
+    }
+
+    public void setProgressiveRenderingEnabled(boolean enabled) {
+        this.isProgressiveRenderingEnabled = enabled;
+    }
+
+    public void setBitmapCacheSize(int maxSizeBytes) {
+        this.bitmapCacheSizeBytes = maxSizeBytes;
+    }
+
+    public void setPrefetchWindow(int prefetchWindow) {
+        this.prefetchWindow = prefetchWindow;
+    }
+
+    public void setPrefetchPriority(Priority prefetchPriority) {
+        this.prefetchPriority = prefetchPriority;
+    }
+
+    /**
+     * @param shownAtMillis uptime the viewer was shown at, or -1 if the time to the first image isn't needed
+     */
+    public void setImageLoadListener(ImageLoadListener listener, long shownAtMillis) {
+        this.imageLoadListener = listener;
+        this.shownAtMillis = shownAtMillis;
+    }
+
+    /**
+     * Reports the frame durations of pager drags, zooms and swipes to dismiss to {@code listener}.
+     * Pass {@code null} to stop collecting.
+     */
+    public void setFrameMetricsListener(FrameMetricsListener listener) {
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.end();
+        }
+        frameMetricsCollector = listener != null
+                ? new FrameMetricsCollector(listener, getRefreshRate()) : null;
+    }
+
+    private float getRefreshRate() {
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        return windowManager != null ? windowManager.getDefaultDisplay().getRefreshRate() : 0.0f;
+    }
+
+    private void beginGesture(FrameStats.Gesture gesture) {
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.begin(gesture);
+        }
+    }
+
+    private void endGesture(FrameStats.Gesture gesture) {
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.end(gesture);
+        }
+    }
+
+    /**
+     * Sets the number of pages kept on each side of the current one, see {@link ViewPager#setOffscreenPageLimit(int)}.
+     * Drops to a single page while the system is low on memory.
+     */
+    public void setOffscreenPageLimit(int limit) {
+        this.offscreenPageLimit = Math.max(DEFAULT_OFFSCREEN_PAGE_LIMIT, limit);
+        if (adapter != null && !isUnderMemoryPressure) {
+            pager.setOffscreenPageLimit(offscreenPageLimit);
+        }
+    }
+
+    /*
+     * Keeps only the visible page decoded: shrinks the pager window, releases the images of the other
+     * attached pages and stops prefetching until the pressure is gone.
+     */
+    private void onMemoryPressure() {
+        removeCallbacks(restoreRunnable);
+        postDelayed(restoreRunnable, MEMORY_PRESSURE_RESTORE_DELAY_MILLIS);
+        if (adapter == null) {
+            return;
+        }
+        isUnderMemoryPressure = true;
+        pager.setOffscreenPageLimit(DEFAULT_OFFSCREEN_PAGE_LIMIT);
+        adapter.releaseOffscreen(pager.getCurrentItem());
+        if (prefetcher != null) {
+            prefetcher.suspend();
+        }
+    }
+
+    private void onMemoryPressureCleared() {
+        removeCallbacks(restoreRunnable);
+        if (!isUnderMemoryPressure) {
+            return;
+        }
+        isUnderMemoryPressure = false;
+        pager.setOffscreenPageLimit(offscreenPageLimit);
+        adapter.rebindReleased();
+        if (prefetcher != null) {
+            prefetcher.resume(pager.getCurrentItem());
+        }
+    }
+
+    public void setPrefetchPolicy(PrefetchPolicy prefetchPolicy) {
+        this.prefetchPolicy = prefetchPolicy;
+    }
+
+    /**
+     * @return counters of the prefetcher, or {@code null} if the viewer doesn't prefetch
+     */
+    public PrefetchStats getPrefetchStats() {
+        return prefetcher != null ? prefetcher.getStats() : null;
+    }
+
     public void setImageMargin(int marginPixels) {
         pager.setPageMargin(marginPixels);
     }
@@ -152,16 +420,82 @@ public class ImageViewerView extends RelativeLayout
         dismissContainer = (ViewGroup) findViewById(R.id.container);
         swipeDismissListener = new SwipeToDismissListener(findViewById(R.id.dismissView), this, this);
         dismissContainer.setOnTouchListener(swipeDismissListener);
+        swipeDismissListener.setOnStateChangeListener(new SwipeToDismissListener.OnStateChangeListener() {
+            @Override
+            public void onStateChanged(int state) {
+                if (state == SwipeToDismissListener.STATE_TRACKING) {
+                    beginGesture(FrameStats.Gesture.DISMISS_TRACKING);
+                } else if (state == SwipeToDismissListener.STATE_ANIMATING) {
+                    beginGesture(FrameStats.Gesture.DISMISS_ANIMATION);
+                } else {
+                    endGesture(FrameStats.Gesture.DISMISS_TRACKING);
+                    endGesture(FrameStats.Gesture.DISMISS_ANIMATION);
+                }
+            }
+        });
 
         directionDetector = new SwipeDirectionDetector(getContext()) {
             @Override
-            public void onDirectionDetected(Direction direction) {
+            public void onDirectionDetected(SwipeDirection direction) {
                 ImageViewerView.this.direction = direction;
             }
         };
 
         scaleDetector = new ScaleGestureDetector(getContext(),
-                new ScaleGestureDetector.SimpleOnScaleGestureListener());
+                new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+                    @Override
+                    public boolean onScaleBegin(ScaleGestureDetector detector) {
+                        beginGesture(FrameStats.Gesture.ZOOM);
+                        return true;
+                    }
+
+                    @Override
+                    public void onScaleEnd(ScaleGestureDetector detector) {
+                        endGesture(FrameStats.Gesture.ZOOM);
+                    }
+                });
+
+        pager.addOnLayoutChangeListener(new OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                if (adapter != null) {
+                    adapter.setViewportSize(getViewportWidth(), getViewportHeight());
+                }
+            }
+        });
+
+        pager.addOnPageChangeListener(new ViewPager.SimpleOnPageChangeListener() {
+            @Override
+            public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
+                if (prefetcher != null) {
+                    prefetcher.onPageScrolled(position, positionOffset);
+                }
+                if (isUnderMemoryPressure && positionOffset > 0.0f) {
+                    // only the page sliding in is loaded again, the others stay released
+                    int current = pager.getCurrentItem();
+                    adapter.rebindIfReleased(position == current ? position + 1 : position);
+                }
+            }
+
+            @Override
+            public void onPageScrollStateChanged(int state) {
+                if (state == ViewPager.SCROLL_STATE_DRAGGING) {
+                    beginGesture(FrameStats.Gesture.PAGER_DRAG);
+                } else if (state == ViewPager.SCROLL_STATE_IDLE) {
+                    endGesture(FrameStats.Gesture.PAGER_DRAG);
+                }
+            }
+
+            @Override
+            public void onPageSelected(int position) {
+                finishEntryTransition();
+                adapter.loadAround(position);
+                if (prefetcher != null) {
+                    prefetcher.onPageSelected(position);
+                }
+            }
+        });
 
         gestureDetector = new GestureDetectorCompat(getContext(), new GestureDetector.SimpleOnGestureListener() {
             @Override
@@ -206,6 +540,63 @@ public class ImageViewerView extends RelativeLayout
         return super.dispatchTouchEvent(event);
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(memoryCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getContext().getApplicationContext().unregisterComponentCallbacks(memoryCallbacks);
+        removeCallbacks(restoreRunnable);
+        if (prefetcher != null) {
+            prefetcher.cancelAll();
+        }
+        finishEntryTransition();
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.end();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Tears the pages down once the view is no longer used: the pages release their images, prefetching
+     * stops, the data set no longer calls back into the view and the overlay view is detached from it.
+     */
+    void release() {
+        removeCallbacks(restoreRunnable);
+        isUnderMemoryPressure = false;
+        finishEntryTransition();
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.end();
+            frameMetricsCollector = null;
+        }
+        if (prefetcher != null) {
+            prefetcher.cancelAll();
+            prefetcher = null;
+        }
+        if (dataSet != null) {
+            dataSet.setPageListener(null);
+            dataSet = null;
+        }
+        pager.removeOnPageChangeListener(pageChangeListener);
+        pageChangeListener = null;
+        if (adapter != null) {
+            adapter.setOnImageSetListener(null);
+            adapter.setImageLoadListener(null, -1);
+            // destroys the pages, which releases their controllers and bitmaps
+            pager.setAdapter(null);
+            adapter = null;
+        }
+        if (overlayView != null) {
+            dismissContainer.removeView(overlayView);
+            overlayView = null;
+        }
+        onDismissListener = null;
+        upDownEventListener = null;
+    }
+
     @Override
     public void onDismiss() {
         if (onDismissListener != null) {
@@ -236,6 +627,25 @@ public class ImageViewerView extends RelativeLayout
         return adapter.getUrl(pager.getCurrentItem());
     }
 
+    public int getCurrentPosition() {
+        return pager.getCurrentItem();
+    }
+
+    /**
+     * Replaces the items shown by the viewer, see {@link ImageViewer#submitList(List)}.
+     */
+    public void submitList(List<?> items) {
+        adapter.submitList(items);
+        onItemsChanged();
+    }
+
+    private void onItemsChanged() {
+        adapter.notifyDataSetChanged();
+        if (prefetcher != null) {
+            prefetcher.onDataSetChanged(pager.getCurrentItem());
+        }
+    }
+
     public void setPageChangeListener(ViewPager.OnPageChangeListener pageChangeListener) {
         pager.removeOnPageChangeListener(this.pageChangeListener);
         this.pageChangeListener = pageChangeListener;
@@ -243,16 +653,23 @@ public class ImageViewerView extends RelativeLayout
         pageChangeListener.onPageSelected(pager.getCurrentItem());
     }
 
+    private int getViewportWidth() {
+        return pager.getWidth() - pager.getPaddingLeft() - pager.getPaddingRight();
+    }
+
+    private int getViewportHeight() {
+        return pager.getHeight() - pager.getPaddingTop() - pager.getPaddingBottom();
+    }
+
     private void setStartPosition(int position) {
         pager.setCurrentItem(position);
     }
 
     private void onUpDownEvent(MotionEvent event) {
-        if (event.getAction() == MotionEvent.ACTION_UP) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_UP) {
             onActionUp(event);
-        }
-
-        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+        } else if (action == MotionEvent.ACTION_DOWN) {
             onActionDown(event);
         }
 
@@ -261,6 +678,7 @@ public class ImageViewerView extends RelativeLayout
     }
 
     private void onActionDown(MotionEvent event) {
+        finishEntryTransition();
         direction = null;
         wasScaled = false;
         pager.dispatchTouchEvent(event);
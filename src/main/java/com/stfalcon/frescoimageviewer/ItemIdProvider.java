@@ -0,0 +1,9 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Plain Java counterpart of {@link ImageViewer.IdProvider}, used by {@link BaseDataSet}.
+ */
+interface ItemIdProvider<T> {
+
+    long getItemId(T t);
+}
@@ -0,0 +1,28 @@
+package com.stfalcon.frescoimageviewer;
+
+import java.util.List;
+
+/*
+ * Source of a gallery which is too big to be held in memory, e.g. a server album.
+ * The viewer loads the pages of items around the current image and drops the distant ones.
+ */
+public interface PageSource<T> {
+
+    /**
+     * Called once on the UI thread when the viewer is built, so the count must be known up front.
+     *
+     * @return the total number of items
+     */
+    int getCount();
+
+    /**
+     * Loads a page of items. Called on a background thread. Until its page is loaded an item is shown
+     * as the placeholder of the drawee hierarchy. A failed page is loaded again when the user comes back to it.
+     *
+     * @param offset position of the first item of the page
+     * @param size   number of items of the page
+     * @return the items, in order
+     * @throws Exception if the page can't be loaded
+     */
+    List<T> loadPage(int offset, int size) throws Exception;
+}
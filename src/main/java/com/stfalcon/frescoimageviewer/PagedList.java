@@ -0,0 +1,175 @@
+package com.stfalcon.frescoimageviewer;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Read-only list over a {@link PageSource}. Items of pages which are not loaded are {@code null}.
+ * Pages are loaded around the position passed to {@link #loadAround(int)} on the load executor
+ * and published on the callback executor, which must run tasks on the thread using the list.
+ * Plain Java, so it can be benchmarked off-device.
+ */
+class PagedList<T> extends AbstractList<T> {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    // pages further from the current one are dropped
+    private static final int KEEP_DISTANCE = 2;
+
+    private static final int MAX_LOAD_THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    private static ThreadPoolExecutor defaultLoadExecutor;
+
+    interface Listener {
+
+        /**
+         * Called on the callback executor when the items in [fromPosition, fromPosition + count) became available.
+         */
+        void onPageLoaded(int fromPosition, int count);
+
+        /**
+         * Called on the callback executor when the {@link PageSource} failed to load the items in
+         * [fromPosition, fromPosition + count). The page is loaded again when it's needed next time.
+         */
+        void onPageFailed(int fromPosition, int count, Exception error);
+    }
+
+    private final PageSource<T> source;
+    private final int size;
+    private final Executor loadExecutor;
+    private final Executor callbackExecutor;
+
+    private final Map<Integer, List<T>> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int currentPage;
+    private Listener listener;
+
+    PagedList(PageSource<T> source, Executor loadExecutor, Executor callbackExecutor) {
+        this.source = source;
+        this.size = Math.max(0, source.getCount());
+        this.loadExecutor = loadExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Must be called before the first {@link #loadAround(int)}.
+     */
+    void setPageSize(int pageSize) {
+        if (!pages.isEmpty() || !loading.isEmpty()) {
+            throw new IllegalStateException("Page size can't be changed after loading");
+        }
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public T get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        }
+        List<T> page = pages.get(position / pageSize);
+        int index = position % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Loads the page of {@code position} and its neighbours, drops the pages far from it.
+     */
+    void loadAround(int position) {
+        if (size == 0) {
+            return;
+        }
+        currentPage = Math.max(0, Math.min(position, size - 1)) / pageSize;
+        int lastPage = (size - 1) / pageSize;
+
+        for (Iterator<Integer> it = pages.keySet().iterator(); it.hasNext(); ) {
+            if (isDistant(it.next())) {
+                it.remove();
+            }
+        }
+        load(currentPage);
+        for (int page = Math.max(0, currentPage - 1); page <= Math.min(lastPage, currentPage + 1); page++) {
+            load(page);
+        }
+    }
+
+    private void load(final int page) {
+        if (pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        final int offset = page * pageSize;
+        final int count = Math.min(pageSize, size - offset);
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<T> items = null;
+                Exception error = null;
+                try {
+                    items = source.loadPage(offset, count);
+                    if (items == null) {
+                        error = new IllegalStateException("PageSource returned no items for offset " + offset);
+                    }
+                } catch (Exception e) {
+                    error = e;
+                }
+                publish(page, offset, count, items, error);
+            }
+        });
+    }
+
+    private void publish(final int page, final int offset, final int count,
+                         final List<T> items, final Exception error) {
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loading.remove(page);
+                if (error != null) {
+                    if (listener != null) {
+                        listener.onPageFailed(offset, count, error);
+                    }
+                    return;
+                }
+                if (isDistant(page)) {
+                    return;
+                }
+                pages.put(page, items);
+                if (listener != null) {
+                    listener.onPageLoaded(offset, Math.min(items.size(), pageSize));
+                }
+            }
+        });
+    }
+
+    static synchronized Executor getDefaultLoadExecutor() {
+        if (defaultLoadExecutor == null) {
+            defaultLoadExecutor = new ThreadPoolExecutor(MAX_LOAD_THREADS, MAX_LOAD_THREADS,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+            defaultLoadExecutor.allowCoreThreadTimeOut(true);
+        }
+        return defaultLoadExecutor;
+    }
+
+    private boolean isDistant(int page) {
+        return Math.abs(page - currentPage) > KEEP_DISTANCE;
+    }
+}
@@ -0,0 +1,173 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Loads the bitmaps of an IMAGE_VIEW_TYPE_PLAIN viewer off the UI thread. Supported items are
+ * {@link File}s, {@code byte[]}s of encoded images, {@link Uri}s (content, file, android.resource)
+ * and {@link ImageViewer.BitmapSupplier}s. Encoded images are subsampled to the requested size.
+ */
+class PlainImageLoader {
+
+    private static final String TAG = PlainImageLoader.class.getSimpleName();
+
+    private static final int MAX_THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    private static ThreadPoolExecutor executor;
+
+    private final Context context;
+    private final BitmapCache cache;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    interface Callback {
+
+        /**
+         * Called on the UI thread with the loaded bitmap.
+         */
+        void onBitmapLoaded(Bitmap bitmap);
+
+        /**
+         * Called on the UI thread when the item can't be loaded.
+         */
+        void onBitmapFailed(Throwable throwable);
+    }
+
+    PlainImageLoader(Context context, BitmapCache cache) {
+        this.context = context.getApplicationContext();
+        this.cache = cache;
+    }
+
+    static boolean isSupported(Object item) {
+        return item instanceof ImageViewer.BitmapSupplier
+                || item instanceof File
+                || item instanceof byte[]
+                || item instanceof Uri;
+    }
+
+    Bitmap getCached(Object item) {
+        return cache.get(item);
+    }
+
+    void trimMemory() {
+        cache.evictAll();
+    }
+
+    /**
+     * Decodes {@code item} on the worker pool. Cancelling the returned future drops the result.
+     */
+    Future<?> load(final Object item, final int width, final int height, final Callback callback) {
+        return getExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap = null;
+                Throwable error = null;
+                try {
+                    bitmap = decode(item, width, height);
+                    if (bitmap == null) {
+                        error = new IOException("Can't decode " + item);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Log.w(TAG, "Can't load " + item, e);
+                    error = e;
+                } catch (OutOfMemoryError e) {
+                    Log.w(TAG, "Out of memory while loading " + item, e);
+                    cache.evictAll();
+                    error = e;
+                }
+                if (bitmap != null) {
+                    cache.put(item, bitmap);
+                }
+                if (!Thread.currentThread().isInterrupted()) {
+                    deliver(callback, bitmap, error);
+                }
+            }
+        });
+    }
+
+    private void deliver(final Callback callback, final Bitmap bitmap, final Throwable error) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (bitmap != null) {
+                    callback.onBitmapLoaded(bitmap);
+                } else {
+                    callback.onBitmapFailed(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the bitmap, or {@code null} if {@code item} isn't a decodable image
+     */
+    private Bitmap decode(Object item, int width, int height) throws IOException {
+        if (item instanceof ImageViewer.BitmapSupplier) {
+            return ((ImageViewer.BitmapSupplier) item).get();
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decode(item, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inSampleSize = getSampleSize(options.outWidth, options.outHeight, width, height);
+        options.inJustDecodeBounds = false;
+        return decode(item, options);
+    }
+
+    private Bitmap decode(Object item, BitmapFactory.Options options) throws IOException {
+        if (item instanceof File) {
+            return BitmapFactory.decodeFile(((File) item).getPath(), options);
+        } else if (item instanceof byte[]) {
+            byte[] data = (byte[]) item;
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        InputStream stream = context.getContentResolver().openInputStream((Uri) item);
+        if (stream == null) {
+            return null;
+        }
+        try {
+            return BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return the largest power of two sample size keeping the image at least as big as the requested size
+     */
+    private static int getSampleSize(int imageWidth, int imageHeight, int width, int height) {
+        int sampleSize = 1;
+        if (width <= 0 || height <= 0) {
+            return sampleSize;
+        }
+        while (imageWidth / (sampleSize * 2) >= width && imageHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+}
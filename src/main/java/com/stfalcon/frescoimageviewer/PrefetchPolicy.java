@@ -0,0 +1,34 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Decides how many images around the current page are prefetched.
+ */
+public interface PrefetchPolicy {
+
+    /**
+     * Called from {@code ViewPager.OnPageChangeListener#onPageScrolled}.
+     *
+     * @param position       position of the first page currently being displayed
+     * @param positionOffset offset from {@code position}, in range [0, 1)
+     * @param timeMillis     event time in {@code SystemClock.uptimeMillis()} time base
+     */
+    void onPageScrolled(int position, float positionOffset, long timeMillis);
+
+    /**
+     * Called when a new page becomes selected, right before the windows are queried.
+     *
+     * @param position   position of the selected page
+     * @param timeMillis event time in {@code SystemClock.uptimeMillis()} time base
+     */
+    void onPageSelected(int position, long timeMillis);
+
+    /**
+     * @return how many images after the selected one should be prefetched
+     */
+    int getForwardWindow();
+
+    /**
+     * @return how many images before the selected one should be prefetched
+     */
+    int getBackwardWindow();
+}
@@ -0,0 +1,45 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Counters of the viewer's prefetcher. A hit is a selected page whose image had already been
+ * prefetched successfully, a miss is any other selected page.
+ */
+public class PrefetchStats {
+
+    long requested;
+    long cancelled;
+    long hits;
+    long misses;
+
+    public long getRequestedCount() {
+        return requested;
+    }
+
+    public long getCancelledCount() {
+        return cancelled;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return share of selected pages that were served by a finished prefetch, in range [0, 1]
+     */
+    public float getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0f : (float) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "PrefetchStats{requested=" + requested
+                + ", cancelled=" + cancelled
+                + ", hits=" + hits
+                + ", misses=" + misses + '}';
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2016 stfalcon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Direction of a swipe gesture. Plain Java, shared by {@link SwipeDirectionDetector} and the benchmarks.
+ */
+enum SwipeDirection {
+    NOT_DETECTED,
+    UP,
+    DOWN,
+    LEFT,
+    RIGHT;
+
+    /**
+     * Given two points in the plane p1=(x1, x2) and p2=(y1, y1), this method
+     * returns the direction that an arrow pointing from p1 to p2 would have.
+     *
+     * @param x1 the x position of the first point
+     * @param y1 the y position of the first point
+     * @param x2 the x position of the second point
+     * @param y2 the y position of the second point
+     * @return the direction
+     */
+    static SwipeDirection get(float x1, float y1, float x2, float y2) {
+        return get(getAngle(x1, y1, x2, y2));
+    }
+
+    /**
+     * Same as {@link #get(float, float, float, float)}, without trigonometry: the quadrant is
+     * picked by comparing |dx| with |dy| and their signs. Vectors lying exactly on a diagonal are
+     * classified as the angle based version does: 45 is UP, 135 is LEFT, 225 is DOWN and 315 is
+     * RIGHT.
+     */
+    static SwipeDirection classify(float x1, float y1, float x2, float y2) {
+        // y axis pointing up, as in getAngle
+        float dx = x2 - x1;
+        float dy = y1 - y2;
+        if (dy > 0 && (dx > 0 ? dy >= dx : dy > -dx)) {
+            return UP;
+        } else if (dy < 0 && (dx < 0 ? dy <= dx : -dy > dx)) {
+            return DOWN;
+        } else if (dx < 0) {
+            return LEFT;
+        } else {
+            return RIGHT;
+        }
+    }
+
+    static SwipeDirection get(double angle) {
+        if (inRange(angle, 45, 135)) {
+            return UP;
+        } else if (inRange(angle, 0, 45) || inRange(angle, 315, 360)) {
+            return RIGHT;
+        } else if (inRange(angle, 225, 315)) {
+            return DOWN;
+        } else {
+            return LEFT;
+        }
+    }
+
+    /**
+     * Finds the angle between two points in the plane (x1,y1) and (x2, y2)
+     * The angle is measured with 0/360 being the X-axis to the right, angles
+     * increase counter clockwise.
+     *
+     * @param x1 the x position of the first point
+     * @param y1 the y position of the first point
+     * @param x2 the x position of the second point
+     * @param y2 the y position of the second point
+     * @return the angle between two points
+     */
+    static double getAngle(float x1, float y1, float x2, float y2) {
+        double rad = Math.atan2(y1 - y2, x2 - x1) + Math.PI;
+        return (rad * 180 / Math.PI + 180) % 360;
+    }
+
+    private static boolean inRange(double angle, float init, float end) {
+        return (angle >= init) && (angle < end);
+    }
+}
@@ -19,6 +19,7 @@ package com.stfalcon.frescoimageviewer;
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.ObjectAnimator;
+import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.graphics.Rect;
 import android.view.MotionEvent;
@@ -32,10 +33,18 @@ class SwipeToDismissListener implements View.OnTouchListener {
 
     private static final String PROPERTY_TRANSLATION_X = "translationY";
 
+    static final int STATE_IDLE = 0;
+    static final int STATE_TRACKING = 1;
+    static final int STATE_ANIMATING = 2;
+
     private final View swipeView;
+    private final Rect hitRect = new Rect();
+    private final TimeInterpolator dismissInterpolator = new AccelerateInterpolator();
     private int translationLimit;
     private OnDismissListener dismissListener;
     private OnViewMoveListener moveListener;
+    private OnStateChangeListener stateListener;
+    private int state = STATE_IDLE;
 
     public SwipeToDismissListener(View swipeView, OnDismissListener dismissListener,
                                   OnViewMoveListener moveListener) {
@@ -52,7 +61,6 @@ class SwipeToDismissListener implements View.OnTouchListener {
         translationLimit = v.getHeight() / 4;
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
-                Rect hitRect = new Rect();
                 swipeView.getHitRect(hitRect);
                 if (hitRect.contains((int) event.getX(), (int) event.getY())) {
                     tracking = true;
@@ -68,6 +76,7 @@ class SwipeToDismissListener implements View.OnTouchListener {
                 return true;
             case MotionEvent.ACTION_MOVE:
                 if (tracking) {
+                    setState(STATE_TRACKING);
                     float translationY = event.getY() - startY;
                     swipeView.setTranslationY(translationY);
                     callMoveListener(translationY, translationLimit);
@@ -92,12 +101,13 @@ class SwipeToDismissListener implements View.OnTouchListener {
                 swipeView, PROPERTY_TRANSLATION_X, currentPosition, animateTo);
 
         animator.setDuration(200);
-        animator.setInterpolator(new AccelerateInterpolator());
+        animator.setInterpolator(dismissInterpolator);
         animator.addListener(
                 new AnimatorListenerAdapter() {
                     @Override
                     public void onAnimationEnd(Animator animation) {
                         super.onAnimationEnd(animation);
+                        setState(STATE_IDLE);
                         if (isDismissed) callDismissListener();
                     }
                 });
@@ -108,9 +118,27 @@ class SwipeToDismissListener implements View.OnTouchListener {
                         callMoveListener((float) animation.getAnimatedValue(), translationLimit);
                     }
                 });
+        // a tap settles the view without a drag, it's not a swipe
+        if (state == STATE_TRACKING) {
+            setState(STATE_ANIMATING);
+        }
         animator.start();
     }
 
+    void setOnStateChangeListener(OnStateChangeListener stateListener) {
+        this.stateListener = stateListener;
+    }
+
+    private void setState(int state) {
+        if (this.state == state) {
+            return;
+        }
+        this.state = state;
+        if (stateListener != null) {
+            stateListener.onStateChanged(state);
+        }
+    }
+
     private void callDismissListener() {
         if (dismissListener != null) {
             dismissListener.onDismiss();
@@ -126,4 +154,12 @@ class SwipeToDismissListener implements View.OnTouchListener {
     interface OnViewMoveListener {
         void onViewMove(float translationY, int translationLimit);
     }
+
+    interface OnStateChangeListener {
+
+        /**
+         * @param state one of {@link #STATE_IDLE}, {@link #STATE_TRACKING} and {@link #STATE_ANIMATING}
+         */
+        void onStateChanged(int state);
+    }
 }
\ No newline at end of file
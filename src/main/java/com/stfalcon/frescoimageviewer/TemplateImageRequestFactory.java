@@ -0,0 +1,27 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.net.Uri;
+
+import com.facebook.imagepipeline.request.ImageRequest;
+import com.facebook.imagepipeline.request.ImageRequestBuilder;
+
+/*
+ * Adapts a custom {@code ImageRequestBuilder} to {@link ImageViewer.ImageRequestFactory}. The builder
+ * is built once into an immutable template, every url gets its own copy, so requests may be
+ * created concurrently and later changes of the builder don't leak into the viewer.
+ */
+class TemplateImageRequestFactory implements ImageViewer.ImageRequestFactory {
+
+    private final ImageRequest template;
+
+    TemplateImageRequestFactory(ImageRequestBuilder builder) {
+        this.template = builder.build();
+    }
+
+    @Override
+    public ImageRequest create(String url) {
+        return ImageRequestBuilder.fromRequest(template)
+                .setSource(Uri.parse(url))
+                .build();
+    }
+}
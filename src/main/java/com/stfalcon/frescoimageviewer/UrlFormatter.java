@@ -0,0 +1,9 @@
+package com.stfalcon.frescoimageviewer;
+
+/*
+ * Plain Java counterpart of {@link ImageViewer.Formatter}, used by {@link BaseDataSet}.
+ */
+interface UrlFormatter<T> {
+
+    String format(T t);
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 "Henry Tao <hi@henrytao.me>"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stfalcon.frescoimageviewer.adapter;
+
+/*
+ * Zoom of a page kept by {@link RecyclingPagerAdapter} across instance state saves.
+ */
+public final class PageState {
+
+    private float mScale = 1.0f;
+    private float mTranslationX;
+    private float mTranslationY;
+
+    public void set(float scale, float translationX, float translationY) {
+        mScale = scale;
+        mTranslationX = translationX;
+        mTranslationY = translationY;
+    }
+
+    public float getScale() {
+        return mScale;
+    }
+
+    public float getTranslationX() {
+        return mTranslationX;
+    }
+
+    public float getTranslationY() {
+        return mTranslationY;
+    }
+}
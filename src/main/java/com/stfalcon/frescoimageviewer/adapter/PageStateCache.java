@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 "Henry Tao <hi@henrytao.me>"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stfalcon.frescoimageviewer.adapter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Saved {@link PageState}s by item id, the least recently saved pages are dropped
+ * beyond the maximum size. Flattened into primitive arrays for the instance state, so its
+ * parcel stays a few bytes per page.
+ */
+class PageStateCache {
+
+    static final int DEFAULT_MAX_SIZE = 64;
+
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+
+    private final LinkedHashMap<Long, PageState> mStates = new LinkedHashMap<Long, PageState>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PageState> eldest) {
+            return size() > mMaxSize;
+        }
+    };
+
+    void put(long id, PageState state) {
+        mStates.put(id, state);
+    }
+
+    /**
+     * @return the state of the page, or {@code null} if none was saved. The state is removed,
+     * so a page coming back later starts unzoomed like any other page.
+     */
+    PageState remove(long id) {
+        return mStates.remove(id);
+    }
+
+    int size() {
+        return mStates.size();
+    }
+
+    void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize < 0");
+        }
+        mMaxSize = maxSize;
+        trim();
+    }
+
+    long[] getIds() {
+        long[] ids = new long[mStates.size()];
+        int i = 0;
+        for (Long id : mStates.keySet()) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * @return scale, translation x and translation y of every page, in the order of {@link #getIds()}
+     */
+    float[] getValues() {
+        float[] values = new float[mStates.size() * 3];
+        int i = 0;
+        for (PageState state : mStates.values()) {
+            values[i++] = state.getScale();
+            values[i++] = state.getTranslationX();
+            values[i++] = state.getTranslationY();
+        }
+        return values;
+    }
+
+    /**
+     * Replaces the states with ones flattened by {@link #getIds()} and {@link #getValues()}.
+     */
+    void setValues(long[] ids, float[] values) {
+        mStates.clear();
+        if (ids == null || values == null || values.length != ids.length * 3) {
+            return;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            PageState state = new PageState();
+            state.set(values[i * 3], values[i * 3 + 1], values[i * 3 + 2]);
+            mStates.put(ids[i], state);
+        }
+    }
+
+    private void trim() {
+        Iterator<Long> iterator = mStates.keySet().iterator();
+        while (mStates.size() > mMaxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
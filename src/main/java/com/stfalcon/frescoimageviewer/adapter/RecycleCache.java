@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 "Henry Tao <hi@henrytao.me>"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stfalcon.frescoimageviewer.adapter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/*
+ * Holders of a single view type created by {@link RecyclingPagerAdapter}: a stack of free
+ * holders, bounded by a maximum pool size, and the list of holders attached to the pager.
+ * Used from the UI thread only. Plain Java, so it can be benchmarked off-device.
+ */
+class RecycleCache<T> {
+
+    static final int DEFAULT_MAX_FREE = 3;
+
+    private final ArrayDeque<T> mFree = new ArrayDeque<>();
+    private final ArrayList<T> mAttached = new ArrayList<>();
+    private int mMaxFree = DEFAULT_MAX_FREE;
+
+    private long mHits;
+    private long mMisses;
+
+    /**
+     * @return a holder which is not attached to the pager, or {@code null} if none is free
+     */
+    T obtain() {
+        T viewHolder = mFree.pollFirst();
+        if (viewHolder != null) {
+            mHits++;
+        } else {
+            mMisses++;
+        }
+        return viewHolder;
+    }
+
+    void attach(T viewHolder) {
+        mAttached.add(viewHolder);
+    }
+
+    /**
+     * Moves a detached holder to the free holders.
+     *
+     * @return false if the pool is full and the holder was dropped
+     */
+    boolean recycle(T viewHolder) {
+        for (int i = mAttached.size() - 1; i >= 0; i--) {
+            if (mAttached.get(i) == viewHolder) {
+                mAttached.remove(i);
+                break;
+            }
+        }
+        if (mFree.size() >= mMaxFree) {
+            return false;
+        }
+        mFree.addFirst(viewHolder);
+        return true;
+    }
+
+    /**
+     * Sets the maximum number of free holders, dropping the excess ones.
+     */
+    void setMaxFree(int maxFree) {
+        mMaxFree = Math.max(0, maxFree);
+        while (mFree.size() > mMaxFree) {
+            mFree.pollLast();
+        }
+    }
+
+    int attachedCount() {
+        return mAttached.size();
+    }
+
+    T getAttached(int index) {
+        return mAttached.get(index);
+    }
+
+    int freeCount() {
+        return mFree.size();
+    }
+
+    int size() {
+        return mFree.size() + mAttached.size();
+    }
+
+    long getHitCount() {
+        return mHits;
+    }
+
+    long getMissCount() {
+        return mMisses;
+    }
+}
@@ -20,12 +20,10 @@ import android.os.Bundle;
 import android.os.Parcelable;
 
 import android.util.SparseArray;
+import android.util.SparseBooleanArray;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import androidx.viewpager.widget.PagerAdapter;
 
 /*
@@ -39,23 +37,41 @@ public abstract class RecyclingPagerAdapter<VH extends ViewHolder> extends Pager
 
     public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
 
+    /**
+     * Called right after the holder was detached from the pager and returned to the recycle cache,
+     * or dropped if the cache of its view type is full.
+     */
+    public void onViewRecycled(VH holder) {
+    }
+
     private static final String STATE = RecyclingPagerAdapter.class.getSimpleName();
 
+    private static final String STATE_IDS = STATE + ".ids";
+
+    private static final String STATE_VALUES = STATE + ".values";
+
     private static final String TAG = RecyclingPagerAdapter.class.getSimpleName();
 
     public static boolean DEBUG = false;
 
-    private SparseArray<RecycleCache> mRecycleTypeCaches = new SparseArray<>();
+    private SparseArray<RecycleCache<ViewHolder>> mRecycleTypeCaches = new SparseArray<>();
 
-    private SparseArray<Parcelable> mSavedStates = new SparseArray<>();
+    private PageStateCache mSavedStates = new PageStateCache();
+
+    // positions kept pages moved to during the current notifyDataSetChanged()
+    private final SparseBooleanArray mClaimedPositions = new SparseBooleanArray();
 
     public RecyclingPagerAdapter() {
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public void destroyItem(ViewGroup parent, int position, Object object) {
         if (object instanceof ViewHolder) {
-            ((ViewHolder) object).detach(parent);
+            ViewHolder viewHolder = (ViewHolder) object;
+            viewHolder.detach(parent);
+            getRecycleCache(viewHolder.mViewType).recycle(viewHolder);
+            onViewRecycled((VH) viewHolder);
         }
     }
 
@@ -64,22 +80,46 @@ public abstract class RecyclingPagerAdapter<VH extends ViewHolder> extends Pager
         return getItemCount();
     }
 
+    /**
+     * With stable ids a page whose item is still in the data set keeps its holder on
+     * {@link #notifyDataSetChanged()}, following the item if it moved. Otherwise every page is rebuilt.
+     */
     @Override
     public int getItemPosition(Object object) {
-        return POSITION_NONE;
+        if (!hasStableIds() || !(object instanceof ViewHolder)) {
+            return POSITION_NONE;
+        }
+        ViewHolder viewHolder = (ViewHolder) object;
+        int position = getPositionForItemId(viewHolder.mItemId, viewHolder.mPosition);
+        // pages of items sharing an id could find the same item, only the first one keeps it
+        if (position < 0 || mClaimedPositions.get(position)) {
+            return POSITION_NONE;
+        }
+        mClaimedPositions.put(position, true);
+        if (position == viewHolder.mPosition) {
+            return POSITION_UNCHANGED;
+        }
+        viewHolder.mPosition = position;
+        return position;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public Object instantiateItem(ViewGroup parent, int position) {
         int viewType = getItemViewType(position);
-        if (mRecycleTypeCaches.get(viewType) == null) {
-            mRecycleTypeCaches.put(viewType, new RecycleCache(this));
+        RecycleCache<ViewHolder> cache = getRecycleCache(viewType);
+        ViewHolder viewHolder = cache.obtain();
+        if (viewHolder == null) {
+            viewHolder = onCreateViewHolder(parent, viewType);
+            viewHolder.mViewType = viewType;
         }
-        ViewHolder viewHolder = mRecycleTypeCaches.get(viewType).getFreeViewHolder(parent, viewType);
-        viewHolder.attach(parent, position);
+        cache.attach(viewHolder);
+        viewHolder.attach(parent, position, getItemId(position));
         onBindViewHolder((VH) viewHolder, position);
-        viewHolder.onRestoreInstanceState(mSavedStates.get(getItemId(position)));
+        PageState state = mSavedStates.remove(viewHolder.mItemId);
+        if (state != null) {
+            viewHolder.onRestoreInstanceState(state);
+        }
         return viewHolder;
     }
 
@@ -90,9 +130,13 @@ public abstract class RecyclingPagerAdapter<VH extends ViewHolder> extends Pager
 
     @Override
     public void notifyDataSetChanged() {
+        mClaimedPositions.clear();
         super.notifyDataSetChanged();
-        for (ViewHolder viewHolder : getAttachedViewHolders()) {
-            onNotifyItemChanged(viewHolder);
+        for (int i = 0, n = mRecycleTypeCaches.size(); i < n; i++) {
+            RecycleCache<ViewHolder> cache = mRecycleTypeCaches.valueAt(i);
+            for (int j = 0, m = cache.attachedCount(); j < m; j++) {
+                onNotifyItemChanged(cache.getAttached(j));
+            }
         }
     }
 
@@ -101,8 +145,7 @@ public abstract class RecyclingPagerAdapter<VH extends ViewHolder> extends Pager
         if (state instanceof Bundle) {
             Bundle bundle = (Bundle) state;
             bundle.setClassLoader(loader);
-            SparseArray<Parcelable> ss = bundle.containsKey(STATE) ? bundle.getSparseParcelableArray(STATE) : null;
-            mSavedStates = ss != null ? ss : new SparseArray<Parcelable>();
+            mSavedStates.setValues(bundle.getLongArray(STATE_IDS), bundle.getFloatArray(STATE_VALUES));
         }
         super.restoreState(state, loader);
     }
@@ -110,60 +153,128 @@ public abstract class RecyclingPagerAdapter<VH extends ViewHolder> extends Pager
     @Override
     public Parcelable saveState() {
         Bundle bundle = new Bundle();
-        for (ViewHolder viewHolder : getAttachedViewHolders()) {
-            mSavedStates.put(getItemId(viewHolder.mPosition), viewHolder.onSaveInstanceState());
+        for (int i = 0, n = mRecycleTypeCaches.size(); i < n; i++) {
+            RecycleCache<ViewHolder> cache = mRecycleTypeCaches.valueAt(i);
+            for (int j = 0, m = cache.attachedCount(); j < m; j++) {
+                ViewHolder viewHolder = cache.getAttached(j);
+                PageState state = new PageState();
+                if (viewHolder.onSaveInstanceState(state)) {
+                    mSavedStates.put(viewHolder.mItemId, state);
+                } else {
+                    mSavedStates.remove(viewHolder.mItemId);
+                }
+            }
         }
-        bundle.putSparseParcelableArray(STATE, mSavedStates);
+        bundle.putLongArray(STATE_IDS, mSavedStates.getIds());
+        bundle.putFloatArray(STATE_VALUES, mSavedStates.getValues());
         return bundle;
     }
 
-    public int getItemId(int position) {
+    /**
+     * @return the id of the item at {@code position}. Must be unique and stay the same while
+     * the item is in the data set if {@link #hasStableIds()} is true.
+     */
+    public long getItemId(int position) {
         return position;
     }
 
+    public boolean hasStableIds() {
+        return false;
+    }
+
+    /**
+     * @return the current position of the item with {@code id}, or -1 if it was removed.
+     * Only used with stable ids, for the attached pages. Searches the whole data set outward from the
+     * page's previous position, override it to bound the search if ids are expensive to compute.
+     */
+    public int getPositionForItemId(long id, int previousPosition) {
+        return findPositionForItemId(id, previousPosition, getItemCount());
+    }
+
+    /**
+     * @return the position of the item with {@code id} closest to {@code position} and at most
+     * {@code maxDistance} away from it, or -1 if there is none
+     */
+    protected final int findPositionForItemId(long id, int position, int maxDistance) {
+        int n = getItemCount();
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            int after = position + distance;
+            int before = position - distance;
+            if (after >= n && before < 0) {
+                break;
+            }
+            if (after < n && getItemId(after) == id) {
+                return after;
+            }
+            if (distance > 0 && before >= 0 && before < n && getItemId(before) == id) {
+                return before;
+            }
+        }
+        return -1;
+    }
+
     public int getItemViewType(int position) {
         return 0;
     }
 
+    /**
+     * Called by {@link #notifyDataSetChanged()} for every page which kept its holder,
+     * with {@link ViewHolder#getAdapterPosition()} already updated to the item's new position.
+     */
     protected void onNotifyItemChanged(ViewHolder viewHolder) {
     }
 
-    private List<ViewHolder> getAttachedViewHolders() {
-        List<ViewHolder> attachedViewHolders = new ArrayList<>();
-        int n = mRecycleTypeCaches.size();
-        for (int i = 0; i < n; i++) {
-            for (ViewHolder viewHolder : mRecycleTypeCaches.get(mRecycleTypeCaches.keyAt(i)).mCaches) {
-                if (viewHolder.mIsAttached) {
-                    attachedViewHolders.add(viewHolder);
-                }
-            }
-        }
-        return attachedViewHolders;
+    /**
+     * Sets how many pages keep their saved zoom, 64 by default. The least recently saved pages are dropped.
+     */
+    public void setMaxSavedStates(int max) {
+        mSavedStates.setMaxSize(max);
     }
 
-    private static class RecycleCache {
+    /**
+     * Sets how many detached holders of {@code viewType} are kept for reuse, 3 by default.
+     * Excess holders are dropped.
+     */
+    public void setMaxRecycledViews(int viewType, int max) {
+        getRecycleCache(viewType).setMaxFree(max);
+    }
 
-        private final RecyclingPagerAdapter mAdapter;
+    /**
+     * @return the number of holders of {@code viewType}, attached and free
+     */
+    public int getRecycledViewPoolSize(int viewType) {
+        RecycleCache<ViewHolder> cache = mRecycleTypeCaches.get(viewType);
+        return cache != null ? cache.size() : 0;
+    }
 
-        private final List<ViewHolder> mCaches;
+    /**
+     * @return how many times a page reused a free holder
+     */
+    public long getRecycleHitCount() {
+        long hits = 0;
+        for (int i = 0, n = mRecycleTypeCaches.size(); i < n; i++) {
+            hits += mRecycleTypeCaches.valueAt(i).getHitCount();
+        }
+        return hits;
+    }
 
-        RecycleCache(RecyclingPagerAdapter adapter) {
-            mAdapter = adapter;
-            mCaches = new ArrayList<>();
+    /**
+     * @return how many times a page had to create a holder
+     */
+    public long getRecycleMissCount() {
+        long misses = 0;
+        for (int i = 0, n = mRecycleTypeCaches.size(); i < n; i++) {
+            misses += mRecycleTypeCaches.valueAt(i).getMissCount();
         }
+        return misses;
+    }
 
-        ViewHolder getFreeViewHolder(ViewGroup parent, int viewType) {
-            int i = 0;
-            ViewHolder viewHolder;
-            for (int n = mCaches.size(); i < n; i++) {
-                viewHolder = mCaches.get(i);
-                if (!viewHolder.mIsAttached) {
-                    return viewHolder;
-                }
-            }
-            viewHolder = mAdapter.onCreateViewHolder(parent, viewType);
-            mCaches.add(viewHolder);
-            return viewHolder;
+    private RecycleCache<ViewHolder> getRecycleCache(int viewType) {
+        RecycleCache<ViewHolder> cache = mRecycleTypeCaches.get(viewType);
+        if (cache == null) {
+            cache = new RecycleCache<>();
+            mRecycleTypeCaches.put(viewType, cache);
         }
+        return cache;
     }
 }
\ No newline at end of file
@@ -16,9 +16,6 @@
 
 package com.stfalcon.frescoimageviewer.adapter;
 
-import android.os.Bundle;
-import android.os.Parcelable;
-import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -27,14 +24,16 @@ import android.view.ViewGroup;
  */
 public abstract class ViewHolder {
 
-    private static final String STATE = ViewHolder.class.getSimpleName();
-
     public final View itemView;
 
     boolean mIsAttached;
 
     int mPosition;
 
+    long mItemId;
+
+    int mViewType;
+
     public ViewHolder(View itemView) {
         if (itemView == null) {
             throw new IllegalArgumentException("itemView should not be null");
@@ -42,9 +41,22 @@ public abstract class ViewHolder {
         this.itemView = itemView;
     }
 
-    void attach(ViewGroup parent, int position) {
+    public boolean isAttached() {
+        return mIsAttached;
+    }
+
+    public int getAdapterPosition() {
+        return mPosition;
+    }
+
+    public long getItemId() {
+        return mItemId;
+    }
+
+    void attach(ViewGroup parent, int position, long itemId) {
         mIsAttached = true;
         mPosition = position;
+        mItemId = itemId;
         parent.addView(itemView);
     }
 
@@ -53,21 +65,18 @@ public abstract class ViewHolder {
         mIsAttached = false;
     }
 
-    void onRestoreInstanceState(Parcelable state) {
-        if (state instanceof Bundle) {
-            Bundle bundle = (Bundle) state;
-            SparseArray<Parcelable> ss = bundle.containsKey(STATE) ? bundle.getSparseParcelableArray(STATE) : null;
-            if (ss != null) {
-                itemView.restoreHierarchyState(ss);
-            }
-        }
+    /**
+     * Called after binding if the page had a state saved by {@link #onSaveInstanceState(PageState)}.
+     */
+    protected void onRestoreInstanceState(PageState state) {
     }
 
-    Parcelable onSaveInstanceState() {
-        SparseArray<Parcelable> state = new SparseArray<>();
-        itemView.saveHierarchyState(state);
-        Bundle bundle = new Bundle();
-        bundle.putSparseParcelableArray(STATE, state);
-        return bundle;
+    /**
+     * Saves the zoom of the page into {@code state}.
+     *
+     * @return {@code false} if the page has nothing worth restoring, e.g. it isn't zoomed
+     */
+    protected boolean onSaveInstanceState(PageState state) {
+        return false;
     }
 }
\ No newline at end of file
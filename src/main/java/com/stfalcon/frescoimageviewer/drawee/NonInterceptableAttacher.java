@@ -16,6 +16,7 @@
 
 package com.stfalcon.frescoimageviewer.drawee;
 
+import android.graphics.Matrix;
 import android.view.ViewParent;
 
 import com.facebook.drawee.generic.GenericDraweeHierarchy;
@@ -55,6 +56,11 @@ class NonInterceptableAttacher extends Attacher {
         }
     }
 
+    void setDrawMatrix(Matrix matrix) {
+        getDrawMatrix().set(matrix);
+        checkMatrixAndInvalidate();
+    }
+
     @Override
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2016 stfalcon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stfalcon.frescoimageviewer.drawee;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.util.Log;
+import android.util.LongSparseArray;
+import android.view.View;
+
+import com.facebook.binaryresource.BinaryResource;
+import com.facebook.binaryresource.FileBinaryResource;
+import com.facebook.cache.common.CacheKey;
+import com.facebook.common.util.UriUtil;
+import com.facebook.drawee.backends.pipeline.Fresco;
+import com.facebook.imagepipeline.core.ImagePipelineFactory;
+import com.facebook.imagepipeline.request.ImageRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Draws sharp tiles of the visible region over a zoomed drawee. The tiles are decoded from the
+ * encoded image (local file, content uri or Fresco's disk cache) with BitmapRegionDecoder at the
+ * sample size of the current zoom, cached by (level, x, y) and dropped once they leave the view.
+ * Must be used from the UI thread.
+ */
+class TileRenderer {
+
+    private static final String TAG = TileRenderer.class.getSimpleName();
+
+    // size of a decoded tile in px
+    private static final int TILE_SIZE = 512;
+    // aspect ratio mismatch that means the displayed image is rotated or cropped
+    private static final float ASPECT_TOLERANCE = 0.01f;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_LOADING = 1;
+    private static final int STATE_READY = 2;
+    private static final int STATE_UNAVAILABLE = 3;
+
+    private static ExecutorService decodeExecutor;
+
+    private final View view;
+    private final LongSparseArray<Bitmap> tiles = new LongSparseArray<>();
+    private final LongSparseArray<Future<?>> pending = new LongSparseArray<>();
+
+    private final float[] matrixValues = new float[9];
+    private final Matrix inverse = new Matrix();
+    private final RectF visible = new RectF();
+    private final RectF destination = new RectF();
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private Uri uri;
+    private BitmapRegionDecoder decoder;
+    private int state = STATE_IDLE;
+    private int level = -1;
+    private int displayedWidth;
+    private int displayedHeight;
+
+    TileRenderer(View view) {
+        this.view = view;
+    }
+
+    void setSource(Uri uri) {
+        if (uri != null && uri.equals(this.uri)) {
+            return;
+        }
+        release();
+        this.uri = uri;
+    }
+
+    /**
+     * Size of the image the drawee displays, used to detect images whose encoded data
+     * doesn't match what Fresco shows (e.g. EXIF rotation).
+     */
+    void setDisplayedSize(int width, int height) {
+        displayedWidth = width;
+        displayedHeight = height;
+        checkAspectRatio();
+    }
+
+    /**
+     * Draws the tiles of the visible region. The canvas must already be transformed by {@code drawMatrix}.
+     */
+    void draw(Canvas canvas, Matrix drawMatrix, int viewWidth, int viewHeight) {
+        if (uri == null || viewWidth == 0 || viewHeight == 0) {
+            return;
+        }
+
+        drawMatrix.getValues(matrixValues);
+        float zoom = matrixValues[Matrix.MSCALE_X];
+        if (zoom <= 1.0f) {
+            clearTiles();
+            if (state == STATE_UNAVAILABLE && decoder == null) {
+                // the encoded image may reach the disk cache later, retry on the next zoom
+                state = STATE_IDLE;
+            }
+            return;
+        }
+
+        if (state == STATE_IDLE) {
+            loadDecoder();
+        }
+        if (state != STATE_READY) {
+            return;
+        }
+
+        int imageWidth = decoder.getWidth();
+        int imageHeight = decoder.getHeight();
+        float baseScale = Math.min((float) viewWidth / imageWidth, (float) viewHeight / imageHeight);
+        float offsetX = (viewWidth - imageWidth * baseScale) / 2.0f;
+        float offsetY = (viewHeight - imageHeight * baseScale) / 2.0f;
+
+        int sampleSize = getSampleSize(baseScale * zoom);
+        int fullSampleSize = getSampleSize(baseScale);
+        if (sampleSize >= fullSampleSize) {
+            // the regular decode is as sharp as tiles would be
+            clearTiles();
+            return;
+        }
+        int newLevel = Integer.numberOfTrailingZeros(sampleSize);
+        if (newLevel != level) {
+            clearTiles();
+            level = newLevel;
+        }
+
+        if (!drawMatrix.invert(inverse)) {
+            return;
+        }
+        visible.set(0, 0, viewWidth, viewHeight);
+        inverse.mapRect(visible);
+
+        float tileSource = (float) TILE_SIZE * sampleSize;
+        int left = clamp((int) ((visible.left - offsetX) / baseScale / tileSource), imageWidth, tileSource);
+        int top = clamp((int) ((visible.top - offsetY) / baseScale / tileSource), imageHeight, tileSource);
+        int right = clamp((int) ((visible.right - offsetX) / baseScale / tileSource), imageWidth, tileSource);
+        int bottom = clamp((int) ((visible.bottom - offsetY) / baseScale / tileSource), imageHeight, tileSource);
+
+        evictOutside(left, top, right, bottom);
+
+        for (int y = top; y <= bottom; y++) {
+            for (int x = left; x <= right; x++) {
+                long key = key(level, x, y);
+                Bitmap tile = tiles.get(key);
+                if (tile == null) {
+                    requestTile(key, x, y, sampleSize, imageWidth, imageHeight);
+                    continue;
+                }
+                destination.set(
+                        offsetX + x * tileSource * baseScale,
+                        offsetY + y * tileSource * baseScale,
+                        offsetX + Math.min(imageWidth, (x + 1) * tileSource) * baseScale,
+                        offsetY + Math.min(imageHeight, (y + 1) * tileSource) * baseScale);
+                canvas.drawBitmap(tile, null, destination, paint);
+            }
+        }
+    }
+
+    /**
+     * Drops the tiles and the decoder, e.g. when the view leaves the window.
+     */
+    void release() {
+        clearTiles();
+        final BitmapRegionDecoder oldDecoder = decoder;
+        if (oldDecoder != null) {
+            // recycled on the decode thread so a running decode can finish first
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    oldDecoder.recycle();
+                }
+            });
+        }
+        decoder = null;
+        state = STATE_IDLE;
+        level = -1;
+    }
+
+    private void clearTiles() {
+        for (int i = 0, n = pending.size(); i < n; i++) {
+            pending.valueAt(i).cancel(false);
+        }
+        pending.clear();
+        tiles.clear();
+    }
+
+    private void evictOutside(int left, int top, int right, int bottom) {
+        for (int i = tiles.size() - 1; i >= 0; i--) {
+            long key = tiles.keyAt(i);
+            if (!isInside(key, left, top, right, bottom)) {
+                tiles.removeAt(i);
+            }
+        }
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            long key = pending.keyAt(i);
+            if (!isInside(key, left, top, right, bottom)) {
+                pending.valueAt(i).cancel(false);
+                pending.removeAt(i);
+            }
+        }
+    }
+
+    private void requestTile(final long key, int x, int y, int sampleSize, int imageWidth, int imageHeight) {
+        if (pending.get(key) != null) {
+            return;
+        }
+        int tileSource = TILE_SIZE * sampleSize;
+        final Rect region = new Rect(
+                x * tileSource,
+                y * tileSource,
+                Math.min(imageWidth, (x + 1) * tileSource),
+                Math.min(imageHeight, (y + 1) * tileSource));
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        final BitmapRegionDecoder tileDecoder = decoder;
+
+        pending.put(key, getExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap tile = tileDecoder.isRecycled() ? null : tileDecoder.decodeRegion(region, options);
+                view.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pending.get(key) == null || decoder != tileDecoder) {
+                            return;
+                        }
+                        pending.remove(key);
+                        if (tile != null) {
+                            tiles.put(key, tile);
+                            view.invalidate();
+                        }
+                    }
+                });
+            }
+        }));
+    }
+
+    private void loadDecoder() {
+        state = STATE_LOADING;
+        final Uri source = uri;
+        final Context context = view.getContext().getApplicationContext();
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final BitmapRegionDecoder newDecoder = openDecoder(context, source);
+                view.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (source != uri || state != STATE_LOADING) {
+                            if (newDecoder != null) newDecoder.recycle();
+                            return;
+                        }
+                        decoder = newDecoder;
+                        state = newDecoder != null ? STATE_READY : STATE_UNAVAILABLE;
+                        checkAspectRatio();
+                        view.invalidate();
+                    }
+                });
+            }
+        });
+    }
+
+    private void checkAspectRatio() {
+        if (decoder == null || displayedWidth <= 0 || displayedHeight <= 0) {
+            return;
+        }
+        float encoded = (float) decoder.getWidth() / decoder.getHeight();
+        float displayed = (float) displayedWidth / displayedHeight;
+        if (Math.abs(encoded - displayed) > encoded * ASPECT_TOLERANCE) {
+            clearTiles();
+            state = STATE_UNAVAILABLE;
+        } else if (state == STATE_UNAVAILABLE) {
+            state = STATE_READY;
+        }
+    }
+
+    private static BitmapRegionDecoder openDecoder(Context context, Uri uri) {
+        try {
+            if (UriUtil.isLocalContentUri(uri)) {
+                InputStream stream = context.getContentResolver().openInputStream(uri);
+                if (stream == null) {
+                    return null;
+                }
+                try {
+                    return BitmapRegionDecoder.newInstance(stream, false);
+                } finally {
+                    stream.close();
+                }
+            }
+            File file = getEncodedFile(uri);
+            return file != null ? BitmapRegionDecoder.newInstance(file.getPath(), false) : null;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Can't decode regions of " + uri, e);
+            return null;
+        }
+    }
+
+    private static File getEncodedFile(Uri uri) {
+        if (UriUtil.isLocalFileUri(uri)) {
+            return new File(uri.getPath());
+        }
+        // the app may have set its own cache key factory in the pipeline config
+        CacheKey key = Fresco.getImagePipeline().getCacheKeyFactory()
+                .getEncodedCacheKey(ImageRequest.fromUri(uri), null);
+        ImagePipelineFactory factory = Fresco.getImagePipelineFactory();
+        BinaryResource resource = factory.getMainFileCache().getResource(key);
+        if (resource == null) {
+            resource = factory.getSmallImageFileCache().getResource(key);
+        }
+        return resource instanceof FileBinaryResource ? ((FileBinaryResource) resource).getFile() : null;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (decodeExecutor == null) {
+            decodeExecutor = Executors.newSingleThreadExecutor();
+        }
+        return decodeExecutor;
+    }
+
+    /**
+     * @return the largest power of two sample size which still renders at least {@code scale} px per image px
+     */
+    private static int getSampleSize(float scale) {
+        int sampleSize = 1;
+        while (sampleSize * 2 * scale <= 1.0f) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static int clamp(int tile, int imageSize, float tileSource) {
+        int last = (int) ((imageSize - 1) / tileSource);
+        return Math.max(0, Math.min(last, tile));
+    }
+
+    private static long key(int level, int x, int y) {
+        return ((long) level << 56) | ((long) x << 28) | y;
+    }
+
+    private static boolean isInside(long key, int left, int top, int right, int bottom) {
+        int x = (int) ((key >>> 28) & 0xFFFFFFF);
+        int y = (int) (key & 0xFFFFFFF);
+        return x >= left && x <= right && y >= top && y <= bottom;
+    }
+}
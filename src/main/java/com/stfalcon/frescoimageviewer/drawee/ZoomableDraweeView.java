@@ -18,6 +18,8 @@ package com.stfalcon.frescoimageviewer.drawee;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.net.Uri;
 import androidx.annotation.NonNull;
 import android.util.AttributeSet;
 import android.view.GestureDetector;
@@ -37,6 +39,7 @@ import me.relex.photodraweeview.OnViewTapListener;
 public class ZoomableDraweeView extends SimpleDraweeView implements IAttacher {
 
     private NonInterceptableAttacher attacher;
+    private TileRenderer tileRenderer;
 
     public ZoomableDraweeView(Context context, GenericDraweeHierarchy hierarchy) {
         super(context, hierarchy);
@@ -64,6 +67,27 @@ public class ZoomableDraweeView extends SimpleDraweeView implements IAttacher {
         }
     }
 
+    /**
+     * Enables sharp tiles decoded from the encoded image while zoomed in.
+     */
+    public void setTiledDecodingEnabled(boolean enabled) {
+        if (enabled && tileRenderer == null) {
+            tileRenderer = new TileRenderer(this);
+        } else if (!enabled && tileRenderer != null) {
+            tileRenderer.release();
+            tileRenderer = null;
+        }
+    }
+
+    /**
+     * Sets the uri the zoomed tiles are decoded from, usually the uri of the displayed image.
+     */
+    public void setTileSource(Uri uri) {
+        if (tileRenderer != null) {
+            tileRenderer.setSource(uri);
+        }
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
 
@@ -75,6 +99,9 @@ public class ZoomableDraweeView extends SimpleDraweeView implements IAttacher {
         int saveCount = canvas.save();
         canvas.concat(attacher.getDrawMatrix());
         super.onDraw(canvas);
+        if (tileRenderer != null) {
+            tileRenderer.draw(canvas, attacher.getDrawMatrix(), getWidth(), getHeight());
+        }
         canvas.restoreToCount(saveCount);
     }
 
@@ -87,9 +114,27 @@ public class ZoomableDraweeView extends SimpleDraweeView implements IAttacher {
     @Override
     protected void onDetachedFromWindow() {
         attacher.onDetachedFromWindow();
+        if (tileRenderer != null) {
+            tileRenderer.release();
+        }
         super.onDetachedFromWindow();
     }
 
+    /**
+     * @return a copy of the zoom and pan transformation of the image
+     */
+    public Matrix getZoomMatrix() {
+        return new Matrix(attacher.getDrawMatrix());
+    }
+
+    /**
+     * Restores a transformation returned by {@link #getZoomMatrix()}. The image must be set,
+     * {@link #update(int, int)} resets it.
+     */
+    public void setZoomMatrix(Matrix matrix) {
+        attacher.setDrawMatrix(matrix);
+    }
+
     @Override
     public float getMinimumScale() {
         return attacher.getMinimumScale();
@@ -188,5 +233,8 @@ public class ZoomableDraweeView extends SimpleDraweeView implements IAttacher {
     @Override
     public void update(int imageInfoWidth, int imageInfoHeight) {
         attacher.update(imageInfoWidth, imageInfoHeight);
+        if (tileRenderer != null) {
+            tileRenderer.setDisplayedSize(imageInfoWidth, imageInfoHeight);
+        }
     }
 }
@@ -0,0 +1,74 @@
+package com.stfalcon.frescoimageviewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+
+import com.facebook.drawee.backends.pipeline.Fresco;
+import com.facebook.soloader.SoLoader;
+import com.stfalcon.frescoimageviewer.adapter.ViewHolder;
+import com.stfalcon.frescoimageviewer.drawee.ZoomableDraweeView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Pages leaving the pager are parked in the recycle cache until they are rebound. A parked page
+ * must not keep its image alive: a plain page drops its bitmap, a drawee page its controller.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ImageViewerAdapterTest {
+
+    private Context context;
+    private FrameLayout pager;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        pager = new FrameLayout(context);
+    }
+
+    @Test
+    public void recycledPlainPageDropsItsBitmap() {
+        Bitmap bitmap = Bitmap.createBitmap(16, 16, Bitmap.Config.ARGB_8888);
+        ImageViewerAdapter adapter = new ImageViewerAdapter(context,
+                new ImageViewer.DataSet<>(Arrays.asList(bitmap)), null, null, true);
+        adapter.setImageViewType(ImageViewerAdapter.IMAGE_VIEW_TYPE_PLAIN);
+
+        ViewHolder holder = (ViewHolder) adapter.instantiateItem(pager, 0);
+        ImageView imageView = (ImageView) holder.itemView;
+        assertNotNull(imageView.getDrawable());
+
+        adapter.destroyItem(pager, 0, holder);
+
+        assertNull(imageView.getDrawable());
+        assertTrue(((ImageViewerAdapter.ImageViewHolder) holder).isReleased());
+    }
+
+    @Test
+    public void recycledDraweePageDropsItsController() {
+        SoLoader.setInTestMode();
+        Fresco.initialize(context);
+        ImageViewerAdapter adapter = new ImageViewerAdapter(context,
+                new ImageViewer.DataSet<>(Arrays.asList("https://example.com/1.jpg")), null, null, true);
+
+        ViewHolder holder = (ViewHolder) adapter.instantiateItem(pager, 0);
+        ZoomableDraweeView drawee = (ZoomableDraweeView) holder.itemView;
+        assertNotNull(drawee.getController());
+
+        adapter.destroyItem(pager, 0, holder);
+
+        assertNull(drawee.getController());
+        assertTrue(((ImageViewerAdapter.ImageViewHolder) holder).isReleased());
+    }
+}